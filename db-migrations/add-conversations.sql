@@ -0,0 +1,40 @@
+-- Migration: Conversation summary table
+-- Date: 2026-10-17
+-- Description: One row per conversation (two users, one product) holding the latest message and
+-- each participant's unread count, maintained by MessageService. The inbox reads a user's rows
+-- through the two per-participant indexes instead of grouping their whole message history.
+
+CREATE TABLE conversations (
+    user_a_id BIGINT NOT NULL,  -- smaller of the two user ids
+    user_b_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    last_message_id BIGINT NOT NULL,
+    last_message_at DATETIME2 NOT NULL,
+    unread_a BIGINT NOT NULL DEFAULT 0,  -- received by user A and not read yet
+    unread_b BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT PK_conversations PRIMARY KEY (user_a_id, user_b_id, product_id),
+    CONSTRAINT FK_conversations_product FOREIGN KEY (product_id) REFERENCES marketplace_products(product_id) ON DELETE CASCADE
+);
+
+-- Inbox: a user's conversations newest first, whichever side of the pair they are on
+CREATE INDEX idx_conversations_user_a ON conversations(user_a_id, last_message_at DESC)
+    INCLUDE (last_message_id, unread_a);
+CREATE INDEX idx_conversations_user_b ON conversations(user_b_id, last_message_at DESC)
+    INCLUDE (last_message_id, unread_b);
+
+-- Backfill from existing messages
+INSERT INTO conversations (user_a_id, user_b_id, product_id, last_message_id, last_message_at, unread_a, unread_b)
+SELECT g.user_a_id, g.user_b_id, g.product_id, g.last_message_id, m.sent_at, g.unread_a, g.unread_b
+FROM (
+    SELECT CASE WHEN sender_id < receiver_id THEN sender_id ELSE receiver_id END AS user_a_id,
+           CASE WHEN sender_id < receiver_id THEN receiver_id ELSE sender_id END AS user_b_id,
+           product_id,
+           MAX(message_id) AS last_message_id,
+           SUM(CASE WHEN is_read = 0 AND receiver_id <= sender_id THEN 1 ELSE 0 END) AS unread_a,
+           SUM(CASE WHEN is_read = 0 AND receiver_id > sender_id THEN 1 ELSE 0 END) AS unread_b
+    FROM messages
+    GROUP BY CASE WHEN sender_id < receiver_id THEN sender_id ELSE receiver_id END,
+             CASE WHEN sender_id < receiver_id THEN receiver_id ELSE sender_id END,
+             product_id
+) g
+JOIN messages m ON m.message_id = g.last_message_id;
@@ -0,0 +1,25 @@
+-- Migration: Email outbox
+-- Date: 2026-10-17
+-- Description: Outgoing emails are inserted here in the same transaction as the change that
+-- triggers them and delivered by a background dispatcher (batched, with retry and backoff).
+
+CREATE TABLE email_outbox (
+    email_id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    recipient NVARCHAR(320) NOT NULL,
+    subject NVARCHAR(500) NOT NULL,
+    body NVARCHAR(MAX) NOT NULL,
+    status NVARCHAR(10) NOT NULL DEFAULT 'PENDING',  -- PENDING, SENDING, SENT, FAILED
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME2 NOT NULL,
+    claim_token NVARCHAR(36) NULL,
+    claimed_at DATETIME2 NULL,
+    created_at DATETIME2 NOT NULL,
+    sent_at DATETIME2 NULL,
+    last_error NVARCHAR(500) NULL
+);
+
+-- Dispatcher poll: due pending rows, oldest first
+CREATE INDEX idx_email_outbox_due ON email_outbox(status, next_attempt_at);
+
+-- Claimed batch lookup
+CREATE INDEX idx_email_outbox_claim ON email_outbox(claim_token) WHERE claim_token IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Migration: Index messages for conversation history paging
+-- Date: 2026-10-17
+-- Description: GET /messages/conversation/history reads one thread (a product and two users, both
+-- directions) newest first, a page at a time, with a (sent_at, message_id) cursor. With product_id
+-- leading and sent_at DESC last, each direction is one range seek returning rows already in page
+-- order; the clustered key message_id is part of every nonclustered index, so it breaks ties.
+-- It replaces idx_messages_conversation, which has the same columns in a less selective order.
+
+DROP INDEX idx_messages_conversation ON messages;
+
+CREATE INDEX idx_messages_thread ON messages(product_id, sender_id, receiver_id, sent_at DESC);
@@ -0,0 +1,7 @@
+-- Migration: Index unread notifications per user
+-- Date: 2026-10-17
+-- Description: The unread badge count and POST /users/notifications/read-all (one bulk UPDATE)
+-- both filter notifications on user_id AND is_read = 0. A filtered index keeps that a seek over
+-- the user's unread rows only, however much notification history they have.
+
+CREATE INDEX idx_notifications_user_unread ON notifications(user_id) WHERE is_read = 0;
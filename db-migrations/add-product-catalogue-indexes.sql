@@ -0,0 +1,16 @@
+-- Migration: Composite indexes for the paginated product catalogue
+-- Date: 2026-10-17
+-- Description: Backs GET /users/products/browse. Every page is a seek on
+-- (status, [filter], sort key, product_id), so cost stays flat however deep the client scrolls.
+
+-- Newest first, optionally within a category
+CREATE INDEX idx_products_status_posted ON marketplace_products(status, posted_date DESC, product_id DESC);
+CREATE INDEX idx_products_status_category_posted ON marketplace_products(status, category, posted_date DESC, product_id DESC);
+
+-- Price sorts and price range filters, optionally within a category
+-- (the same index serves price_asc and price_desc by scanning backwards)
+CREATE INDEX idx_products_status_price ON marketplace_products(status, price, product_id);
+CREATE INDEX idx_products_status_category_price ON marketplace_products(status, category, price, product_id);
+
+-- Condition filter is usually combined with a category
+CREATE INDEX idx_products_status_category_condition_posted ON marketplace_products(status, category, [condition], posted_date DESC, product_id DESC);
@@ -0,0 +1,6 @@
+-- Migration: Index product images by product
+-- Date: 2026-10-17
+-- Description: Product lists hydrate images with one product_id IN (...) query per page;
+-- this index turns it into a seek per product returning rows already in display order.
+
+CREATE INDEX idx_product_images_product ON product_images(product_id, display_order);
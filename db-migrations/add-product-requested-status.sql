@@ -0,0 +1,8 @@
+-- Migration: Requested status for asynchronously moderated listings
+-- Date: 2026-10-17
+-- Description: With async moderation a listing is stored as pending_review and published once
+-- moderation passes. The status the seller asked for is kept here, so a listing picked up again
+-- by the stale-moderation sweep (e.g. after a restart) is published with the same status.
+
+ALTER TABLE marketplace_products
+ADD requested_status NVARCHAR(255) NULL;
@@ -0,0 +1,41 @@
+-- Migration: Rating summary table
+-- Date: 2026-10-17
+-- Description: Denormalized per-user rating aggregates (count, sum, per-star histogram),
+-- maintained by the review services so average ratings are a primary-key read.
+
+CREATE TABLE rating_summaries (
+    user_id BIGINT NOT NULL,
+    role NVARCHAR(10) NOT NULL,  -- SELLER or BUYER
+    review_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    stars_1 BIGINT NOT NULL DEFAULT 0,
+    stars_2 BIGINT NOT NULL DEFAULT 0,
+    stars_3 BIGINT NOT NULL DEFAULT 0,
+    stars_4 BIGINT NOT NULL DEFAULT 0,
+    stars_5 BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME2 NULL,
+    CONSTRAINT PK_rating_summaries PRIMARY KEY (user_id, role)
+);
+
+-- Backfill from existing reviews
+INSERT INTO rating_summaries (user_id, role, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+SELECT seller_id, 'SELLER', COUNT(*), SUM(rating),
+       SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END),
+       GETDATE()
+FROM seller_reviews
+GROUP BY seller_id;
+
+INSERT INTO rating_summaries (user_id, role, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+SELECT buyer_id, 'BUYER', COUNT(*), SUM(rating),
+       SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END),
+       GETDATE()
+FROM buyer_reviews
+GROUP BY buyer_id;
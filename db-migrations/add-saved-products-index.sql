@@ -0,0 +1,8 @@
+-- Migration: Index saved products for newest-first keyset paging
+-- Date: 2026-10-17
+-- Description: The saved-products listing reads a user's rows ordered by saved_date, saved_id
+-- (newest first) and joins each to marketplace_products. This index serves each page as a
+-- single range seek, and INCLUDE (product_id) avoids a lookup back to the table before the join.
+
+CREATE INDEX idx_saved_products_user_date ON saved_products(user_id, saved_date DESC, saved_id DESC)
+    INCLUDE (product_id);
@@ -0,0 +1,12 @@
+package com.uon.marketplace.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (cache refreshers, periodic maintenance)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -21,7 +21,10 @@ import com.uon.marketplace.repositories.ProhibitedKeywordRepository;
 import com.uon.marketplace.repositories.ProductReportRepository;
 import com.uon.marketplace.repositories.MarketPlaceProductRepository;
 import com.uon.marketplace.repositories.AppUserRepository;
+import com.uon.marketplace.services.ContentModerationService;
+import com.uon.marketplace.services.KeywordFilterService;
 import com.uon.marketplace.services.NotificationService;
+import com.uon.marketplace.services.ProductRemoderationService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -55,6 +58,45 @@ public class AdminController {
 	@org.springframework.beans.factory.annotation.Autowired
 	private NotificationService notificationService;
 
+	@org.springframework.beans.factory.annotation.Autowired
+	private KeywordFilterService keywordFilterService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private ContentModerationService contentModerationService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private ProductRemoderationService productRemoderationService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.MarketPlaceProductService marketPlaceProductService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.UserSummaryCache userSummaryCache;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.EmailOutboxDispatcher emailOutboxDispatcher;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.MessageEmailDigester messageEmailDigester;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.ConversationSummaryService conversationSummaryService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.RealtimeEventService realtimeEventService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.UnreadCounterService unreadCounterService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.SellerReviewService sellerReviewService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.BuyerReviewService buyerReviewService;
+
+	@org.springframework.beans.factory.annotation.Autowired
+	private com.uon.marketplace.services.RatingSummaryService ratingSummaryService;
+
 	@org.springframework.web.bind.annotation.PostMapping("/create-user")
 	public org.springframework.http.ResponseEntity<AppUserResponse> createUser(@org.springframework.web.bind.annotation.RequestBody com.uon.marketplace.dto.requests.CreateUserRequest request) {
 		AppUserResponse userResponse = adminService.createUser(request);
@@ -218,6 +260,9 @@ public class AdminController {
             keyword.setIsActive(true);
 
             ProhibitedKeyword saved = prohibitedKeywordRepository.save(keyword);
+            // Publish the new keyword to the in-memory moderation index
+            keywordFilterService.refreshCache();
+            contentModerationService.invalidateCache();
             return org.springframework.http.ResponseEntity.ok(saved);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -236,6 +281,8 @@ public class AdminController {
             @org.springframework.web.bind.annotation.PathVariable Long keywordId) {
         try {
             prohibitedKeywordRepository.deleteById(keywordId);
+            keywordFilterService.refreshCache();
+            contentModerationService.invalidateCache();
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Keyword deleted successfully");
@@ -248,6 +295,15 @@ public class AdminController {
         }
     }
 
+    /**
+     * Moderation pipeline metrics
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/moderation/stats")
+    @Operation(summary = "Moderation pipeline stats", description = "Per-stage call, verdict and latency counters for product, review and message moderation, plus verdict cache hit/miss counts")
+    public org.springframework.http.ResponseEntity<Map<String, Object>> getModerationStats() {
+        return org.springframework.http.ResponseEntity.ok(contentModerationService.getPipelineStats());
+    }
+
     /**
      * Get pending product reports (moderation queue)
      */
@@ -313,7 +369,7 @@ public class AdminController {
                         true
                     );
                 }
-                productRepository.save(product);
+                marketPlaceProductService.saveProductDirectly(product);
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -499,6 +555,42 @@ public class AdminController {
         return org.springframework.http.ResponseEntity.ok(productRepository.findByFlagged(true));
     }
 
+    /**
+     * Re-run moderation over every existing listing (e.g. after adding keywords)
+     */
+    @org.springframework.web.bind.annotation.PostMapping("/products/rescan")
+    @Operation(summary = "Re-scan all products", description = "Starts a background job that re-moderates the whole catalogue in chunks and flags listings that now fail moderation")
+    public org.springframework.http.ResponseEntity<?> startProductRescan() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Re-scan started");
+            response.put("job", productRemoderationService.startRescan());
+            return org.springframework.http.ResponseEntity.accepted().body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to start re-scan: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(409).body(response);
+        }
+    }
+
+    /**
+     * Progress of the current or last catalogue re-scan
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/products/rescan")
+    @Operation(summary = "Re-scan progress", description = "Scanned/total counts, flag updates and status of the current or most recent re-scan")
+    public org.springframework.http.ResponseEntity<?> getProductRescanStatus() {
+        Map<String, Object> status = productRemoderationService.getStatus();
+        if (status == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "No re-scan has been run");
+            return org.springframework.http.ResponseEntity.status(404).body(response);
+        }
+        return org.springframework.http.ResponseEntity.ok(status);
+    }
+
         /**
      * Unflag a product (admin override)
      */
@@ -511,7 +603,7 @@ public class AdminController {
             
             product.setFlagged(false);
             product.setFlagReason(null);
-            productRepository.save(product);
+            marketPlaceProductService.saveProductDirectly(product);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -541,7 +633,7 @@ public class AdminController {
             product.setStatus("hidden");
             product.setFlagged(true);
             product.setFlagReason(reason != null ? reason : "Hidden by admin");
-            productRepository.save(product);
+            marketPlaceProductService.saveProductDirectly(product);
 
             // Notify seller
             notificationService.create(
@@ -580,7 +672,7 @@ public class AdminController {
             product.setStatus("Available");
             product.setFlagged(false);
             product.setFlagReason(null);
-            productRepository.save(product);
+            marketPlaceProductService.saveProductDirectly(product);
 
             // Notify seller of restoration
             notificationService.create(
@@ -759,7 +851,8 @@ public class AdminController {
             @org.springframework.web.bind.annotation.PathVariable Long reviewId,
             @org.springframework.web.bind.annotation.RequestHeader("userId") Long adminId) {
         try {
-            sellerReviewsRepository.deleteById(reviewId);
+            // Through the service so the seller's rating summary is updated too
+            sellerReviewService.deleteReview(reviewId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -782,7 +875,8 @@ public class AdminController {
             @org.springframework.web.bind.annotation.PathVariable Long reviewId,
             @org.springframework.web.bind.annotation.RequestHeader("userId") Long adminId) {
         try {
-            buyerReviewRepository.deleteById(reviewId);
+            // Through the service so the buyer's rating summary is updated too
+            buyerReviewService.deleteReview(reviewId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -795,4 +889,128 @@ public class AdminController {
             return org.springframework.http.ResponseEntity.status(500).body(response);
         }
     }
+
+    /**
+     * Recompute all rating summaries from the review tables
+     */
+    @org.springframework.web.bind.annotation.PostMapping("/ratings/rebuild")
+    @Operation(summary = "Rebuild rating summaries", description = "Recomputes seller/buyer rating summaries from the review tables (drift correction; also runs nightly)")
+    public org.springframework.http.ResponseEntity<?> rebuildRatingSummaries() {
+        try {
+            int summaries = ratingSummaryService.rebuildAll();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Rebuilt " + summaries + " rating summaries");
+            response.put("summaries", summaries);
+            return org.springframework.http.ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to rebuild rating summaries: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * Size and load state of the product search index and facet counts
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/search/stats")
+    @Operation(summary = "Search index stats", description = "Size and load state of the in-memory product search index and facet counts")
+    public org.springframework.http.ResponseEntity<?> getSearchIndexStats() {
+        return org.springframework.http.ResponseEntity.ok(marketPlaceProductService.getSearchStats());
+    }
+
+    /**
+     * Hit ratio and size of the product detail cache
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/products/cache/stats")
+    @Operation(summary = "Product cache stats", description = "Size, hits, misses, hit rate, evictions and invalidations of the product detail cache")
+    public org.springframework.http.ResponseEntity<?> getProductCacheStats() {
+        return org.springframework.http.ResponseEntity.ok(marketPlaceProductService.getDetailCacheStats());
+    }
+
+    /**
+     * Hit ratio and size of the user summary cache
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/users/cache/stats")
+    @Operation(summary = "User cache stats", description = "Size, hits, misses, hit rate, evictions and invalidations of the user summary cache (email, name, status, role)")
+    public org.springframework.http.ResponseEntity<?> getUserCacheStats() {
+        return org.springframework.http.ResponseEntity.ok(userSummaryCache.getStats());
+    }
+
+    /**
+     * Email outbox queue depth and delivery counters
+     */
+    @org.springframework.web.bind.annotation.GetMapping("/email/outbox/stats")
+    @Operation(summary = "Email outbox stats", description = "Queue depth by status, age of the oldest pending email, and sent/retried/failed counts since startup")
+    public org.springframework.http.ResponseEntity<?> getEmailOutboxStats() {
+        try {
+            return org.springframework.http.ResponseEntity.ok(emailOutboxDispatcher.getStats());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to load email outbox stats: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
+
+    @org.springframework.web.bind.annotation.GetMapping("/email/message-digest/stats")
+    @Operation(summary = "Message email digest stats", description = "Conversations waiting for a digest, and digests queued / skipped because the messages were already read")
+    public org.springframework.http.ResponseEntity<?> getMessageDigestStats() {
+        try {
+            return org.springframework.http.ResponseEntity.ok(messageEmailDigester.getStats());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to load message digest stats: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * Recompute all conversation summaries from the messages table
+     */
+    @org.springframework.web.bind.annotation.PostMapping("/messages/conversations/rebuild")
+    @Operation(summary = "Rebuild conversation summaries", description = "Recomputes each conversation's latest message and unread counts from the messages table (drift correction; also runs nightly)")
+    public org.springframework.http.ResponseEntity<?> rebuildConversationSummaries() {
+        try {
+            int conversations = conversationSummaryService.rebuildAll();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Rebuilt " + conversations + " conversations");
+            response.put("conversations", conversations);
+            return org.springframework.http.ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to rebuild conversations: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
+
+    @org.springframework.web.bind.annotation.GetMapping("/realtime/stats")
+    @Operation(summary = "Realtime stream stats", description = "Open event streams, fan-out queue depth, and published/delivered/dropped event counts since startup")
+    public org.springframework.http.ResponseEntity<?> getRealtimeStats() {
+        try {
+            return org.springframework.http.ResponseEntity.ok(realtimeEventService.getStats());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to load realtime stats: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
+
+    @org.springframework.web.bind.annotation.GetMapping("/unread-counters/stats")
+    @Operation(summary = "Unread counter stats", description = "Users with cached unread message/notification counts, cache hits vs database loads, and counts corrected by reconciliation")
+    public org.springframework.http.ResponseEntity<?> getUnreadCounterStats() {
+        try {
+            return org.springframework.http.ResponseEntity.ok(unreadCounterService.getStats());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to load unread counter stats: " + e.getMessage());
+            return org.springframework.http.ResponseEntity.status(500).body(response);
+        }
+    }
 }
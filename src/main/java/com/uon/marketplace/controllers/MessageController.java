@@ -1,15 +1,22 @@
 package com.uon.marketplace.controllers;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.uon.marketplace.dto.requests.SendMessageRequest;
+import com.uon.marketplace.dto.responses.ConversationHistoryResponse;
 import com.uon.marketplace.dto.responses.ConversationResponse;
 import com.uon.marketplace.dto.responses.MessageResponse;
 import com.uon.marketplace.services.MessageService;
+import com.uon.marketplace.services.NotificationService;
+import com.uon.marketplace.services.RealtimeEventService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +29,24 @@ public class MessageController {
     @Autowired
     private MessageService messageService;
     
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private RealtimeEventService realtimeEventService;
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Open event stream", description = "Server-Sent Events stream for the user: 'unread' (counts, sent on connect), 'message', 'messages-read' and 'notification'. Replaces polling unread-count and conversations.")
+    public SseEmitter stream(@RequestParam Long userId) {
+        SseEmitter emitter = realtimeEventService.connect(userId);
+        // Initial badge counts; later changes arrive as events
+        Map<String, Object> unread = new HashMap<>();
+        unread.put("messages", messageService.getUnreadCount(userId));
+        unread.put("notifications", notificationService.unreadCount(userId));
+        realtimeEventService.publish(userId, "unread", unread);
+        return emitter;
+    }
+    
     @PostMapping("/send")
     @Operation(summary = "Send a message", description = "Send a message about a product to another user. Receiver gets email notification.")
     public ResponseEntity<MessageResponse> sendMessage(
@@ -49,6 +74,18 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
     
+    @GetMapping("/conversation/history")
+    @Operation(summary = "Get conversation history page", description = "Latest messages of a conversation, oldest first within the page. Pass nextBefore as 'before' to load older messages. Marks the returned messages as read.")
+    public ResponseEntity<ConversationHistoryResponse> getConversationHistory(
+            @RequestParam Long userId,
+            @RequestParam Long otherUserId,
+            @RequestParam Long productId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size) {
+        ConversationHistoryResponse history = messageService.getConversationHistory(userId, otherUserId, productId, before, size);
+        return ResponseEntity.ok(history);
+    }
+    
     @GetMapping("/unread-count")
     @Operation(summary = "Get unread message count", description = "Get the total number of unread messages for a user")
     public ResponseEntity<Long> getUnreadCount(@RequestParam Long userId) {
@@ -56,6 +93,17 @@ public class MessageController {
         return ResponseEntity.ok(count);
     }
     
+    @PutMapping("/conversation/mark-read")
+    @Operation(summary = "Mark conversation as read", description = "Mark all messages received in a conversation as read, optionally only up to a message id. Returns the number of messages marked.")
+    public ResponseEntity<Integer> markConversationRead(
+            @RequestParam Long userId,
+            @RequestParam Long otherUserId,
+            @RequestParam Long productId,
+            @RequestParam(required = false) Long upToMessageId) {
+        int updated = messageService.markConversationRead(userId, otherUserId, productId, upToMessageId);
+        return ResponseEntity.ok(updated);
+    }
+    
     @PutMapping("/{messageId}/mark-read")
     @Operation(summary = "Mark message as read", description = "Manually mark a specific message as read")
     public ResponseEntity<String> markAsRead(
@@ -6,6 +6,7 @@ import com.uon.marketplace.entities.MarketPlaceProduct;
 import com.uon.marketplace.repositories.ProductReportRepository;
 import com.uon.marketplace.repositories.MarketPlaceProductRepository;
 import com.uon.marketplace.services.NotificationService;
+import com.uon.marketplace.services.ProductDetailCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +29,9 @@ public class ReportController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
     /**
      * Submit a product report
      */
@@ -79,6 +83,7 @@ public class ReportController {
             }
             
             productRepository.save(product);
+            productDetailCache.invalidate(product.getProductId());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -217,6 +217,62 @@ public class UserController {
     public ResponseEntity<java.util.List<com.uon.marketplace.dto.responses.MarketPlaceProductResponse>> getAllAvailableProducts() {
         return ResponseEntity.ok(userService.getAllDetailedAvailableProducts());
     }
+
+    @GetMapping("/products/browse")
+    @Operation(summary = "Browse available products (paginated)",
+            description = "Cursor-paginated catalogue of available products. Optional category, condition and price range filters; sort is newest (default), price_asc or price_desc. Pass nextCursor from the previous page as cursor.")
+    public ResponseEntity<?> browseAvailableProducts(@RequestParam(required = false) String category,
+                                                     @RequestParam(required = false) String condition,
+                                                     @RequestParam(required = false) BigDecimal minPrice,
+                                                     @RequestParam(required = false) BigDecimal maxPrice,
+                                                     @RequestParam(required = false) String sort,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.browseAvailableProducts(category, condition, minPrice, maxPrice, sort, cursor, size));
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/products/facets")
+    @Operation(summary = "Facet counts for available products",
+            description = "Counts of available products by category, condition and price bucket for the given filters. Each facet ignores its own filter so alternative values keep their counts. priceBucket takes a label from the price facet, e.g. 50-100.")
+    public ResponseEntity<?> getProductFacets(@RequestParam(required = false) String category,
+                                              @RequestParam(required = false) String condition,
+                                              @RequestParam(required = false) String priceBucket) {
+        try {
+            return ResponseEntity.ok(userService.getProductFacets(category, condition, priceBucket));
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/products/search")
+    @Operation(summary = "Search available products",
+            description = "Ranked full-text search over product name, description, category and condition. The last word also matches as a prefix (append * to any word for the same). Optional category, condition and price filters; zero-based page. Returns total matches and category/condition facet counts.")
+    public ResponseEntity<?> searchProducts(@RequestParam("q") String query,
+                                            @RequestParam(required = false) String category,
+                                            @RequestParam(required = false) String condition,
+                                            @RequestParam(required = false) BigDecimal minPrice,
+                                            @RequestParam(required = false) BigDecimal maxPrice,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(userService.searchProducts(query, category, condition, minPrice, maxPrice, page, size));
+        } catch (RuntimeException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
     // --- Seller Review Endpoints ---
 
     @GetMapping("/reviews/seller/{sellerId}")
@@ -553,22 +609,16 @@ public class UserController {
     @Operation(summary = "Get saved products", description = "Retrieve user's saved/favorites product list")
     public ResponseEntity<?> getSavedProducts(@RequestHeader("userId") Long userId) {
         try {
-            List<SavedProduct> savedProducts = savedProductService.getSavedProductsByUser(userId);
+            // Image URLs come from the same join as the saved rows (no per-item product lookup)
+            List<com.uon.marketplace.dto.responses.SavedProductCard> cards = savedProductService.getSavedProductCards(userId);
             List<com.uon.marketplace.dto.responses.SavedProductWithImageResponse> responseList = new java.util.ArrayList<>();
-            for (SavedProduct saved : savedProducts) {
-                String productImageUrl = null;
-                try {
-                    com.uon.marketplace.entities.MarketPlaceProduct product = userService.getProductById(saved.getProductId());
-                    productImageUrl = product != null ? product.getProductImageUrl() : null;
-                } catch (Exception ex) {
-                    productImageUrl = null;
-                }
+            for (com.uon.marketplace.dto.responses.SavedProductCard card : cards) {
                 responseList.add(new com.uon.marketplace.dto.responses.SavedProductWithImageResponse(
-                    saved.getSavedId(),
-                    saved.getUserId(),
-                    saved.getProductId(),
-                    saved.getSavedDate(),
-                    productImageUrl
+                    card.getSavedId(),
+                    card.getUserId(),
+                    card.getProductId(),
+                    card.getSavedDate(),
+                    card.getProductImageUrl()
                 ));
             }
             return ResponseEntity.ok(responseList);
@@ -580,6 +630,24 @@ public class UserController {
         }
     }
 
+    /**
+     * Get user's saved products one page at a time
+     */
+    @GetMapping("/saved-products/page")
+    @Operation(summary = "Get saved products (paginated)", description = "Cursor-paginated saved products, newest first, with product card data (name, price, image, status, category, condition). Pass nextCursor from the previous page as cursor.")
+    public ResponseEntity<?> getSavedProductPage(@RequestHeader("userId") Long userId,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(savedProductService.getSavedProductPage(userId, cursor, size));
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Check if a product is saved by user
      */
@@ -0,0 +1,16 @@
+package com.uon.marketplace.dto.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationHistoryResponse {
+    private List<MessageResponse> messages;  // oldest first (chat order)
+    private Long nextBefore;  // pass back as ?before= to load older messages; null when there are none
+    private Boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.uon.marketplace.dto.responses;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFacetsResponse {
+    private Long total;                  // available listings matching every filter
+    private Map<String, Long> category;  // each facet ignores its own filter
+    private Map<String, Long> condition;
+    private Map<String, Long> price;     // price bucket label -> count, e.g. "50-100"
+    private Boolean ready;               // false while the counts are still loading at startup
+}
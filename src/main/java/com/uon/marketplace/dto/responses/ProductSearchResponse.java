@@ -0,0 +1,17 @@
+package com.uon.marketplace.dto.responses;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchResponse {
+    private List<MarketPlaceProductResponse> items;
+    private Long total;                             // matches across all pages
+    private Map<String, Map<String, Long>> facets;  // facet name -> value -> matching listings
+}
@@ -0,0 +1,28 @@
+package com.uon.marketplace.dto.responses;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A saved product with the listing fields a card needs, read in one join
+ * (product fields are null if the listing was deleted)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedProductCard {
+    private Long savedId;
+    private Long userId;
+    private Long productId;
+    private LocalDateTime savedDate;
+    private String productName;
+    private BigDecimal price;
+    private String productImageUrl;
+    private String status;
+    private String category;
+    private String condition;
+}
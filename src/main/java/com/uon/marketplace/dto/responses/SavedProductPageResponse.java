@@ -0,0 +1,16 @@
+package com.uon.marketplace.dto.responses;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedProductPageResponse {
+    private List<SavedProductCard> items;
+    private String nextCursor;  // pass back as ?cursor= for the next page; null on the last page
+    private Boolean hasMore;
+}
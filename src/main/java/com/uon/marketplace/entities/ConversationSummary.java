@@ -0,0 +1,54 @@
+package com.uon.marketplace.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized state of one conversation (two users talking about one product): the latest
+ * message and each participant's unread count. userAId is always the smaller user id.
+ * Kept in step with the messages table by ConversationSummaryService.
+ */
+@Entity
+@Table(name = "conversations")
+@IdClass(ConversationSummaryId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationSummary {
+
+    @Id
+    @Column(name = "user_a_id")
+    private Long userAId;
+
+    @Id
+    @Column(name = "user_b_id")
+    private Long userBId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    // Messages user A / user B has received here and not read yet
+    @Column(name = "unread_a", nullable = false)
+    private Long unreadA = 0L;
+
+    @Column(name = "unread_b", nullable = false)
+    private Long unreadB = 0L;
+
+    public Long getOtherUserId(Long userId) {
+        return userAId.equals(userId) ? userBId : userAId;
+    }
+
+    public Long getUnreadFor(Long userId) {
+        return userAId.equals(userId) ? unreadA : unreadB;
+    }
+}
@@ -0,0 +1,16 @@
+package com.uon.marketplace.entities;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationSummaryId implements Serializable {
+    private Long userAId;
+    private Long userBId;
+    private Long productId;
+}
@@ -65,6 +65,9 @@ public class MarketPlaceProduct {
 	@Column(name = "report_count")
 	private Integer reportCount = 0; // May be null for legacy rows; safeguard in getter
 
+	@Column(name = "requested_status")
+	private String requestedStatus; // Status to publish with once async moderation passes
+
 	// ---- Null-safe accessors / helpers ----
 	public Integer getReportCount() {
 		return reportCount == null ? 0 : reportCount;
@@ -0,0 +1,65 @@
+package com.uon.marketplace.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting in (or sent from) the outbox.
+ * Written in the caller's transaction by EmailOutboxService and delivered by EmailOutboxDispatcher.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboundEmail {
+    public static final String PENDING = "PENDING";
+    public static final String SENDING = "SENDING";
+    public static final String SENT = "SENT";
+    public static final String FAILED = "FAILED";
+
+    // Replaces the body once delivery is finished; bodies can hold reset and verification codes
+    public static final String REDACTED_BODY = "[removed after delivery]";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "email_id")
+    private Long emailId;
+
+    @Column(name = "recipient", nullable = false, length = 320)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "body", nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String body;
+
+    @Column(name = "status", nullable = false, length = 10)
+    private String status = PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // Set while a dispatcher owns the row (status SENDING)
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,59 @@
+package com.uon.marketplace.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized rating aggregate for one user in one role (as seller or as buyer).
+ * Kept in step with seller_reviews / buyer_reviews by the review services.
+ */
+@Entity
+@Table(name = "rating_summaries")
+@IdClass(RatingSummaryId.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingSummary {
+    public static final String SELLER = "SELLER";
+    public static final String BUYER = "BUYER";
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "role", length = 10)
+    private String role;
+
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    // Histogram: number of reviews per star value
+    @Column(name = "stars_1", nullable = false)
+    private Long stars1 = 0L;
+
+    @Column(name = "stars_2", nullable = false)
+    private Long stars2 = 0L;
+
+    @Column(name = "stars_3", nullable = false)
+    private Long stars3 = 0L;
+
+    @Column(name = "stars_4", nullable = false)
+    private Long stars4 = 0L;
+
+    @Column(name = "stars_5", nullable = false)
+    private Long stars5 = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public double getAverageRating() {
+        return reviewCount == null || reviewCount == 0 ? 0.0 : (double) ratingSum / reviewCount;
+    }
+}
@@ -0,0 +1,15 @@
+package com.uon.marketplace.entities;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RatingSummaryId implements Serializable {
+    private Long userId;
+    private String role;
+}
@@ -0,0 +1,66 @@
+package com.uon.marketplace.repositories;
+
+import com.uon.marketplace.entities.ConversationSummary;
+import com.uon.marketplace.entities.ConversationSummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, ConversationSummaryId> {
+
+    /**
+     * A user's conversations with their latest message, newest first.
+     * Each row is [ConversationSummary, Message]; served by the per-participant indexes.
+     */
+    @Query("SELECT c, m FROM ConversationSummary c JOIN Message m ON m.messageId = c.lastMessageId " +
+           "WHERE c.userAId = :userId OR c.userBId = :userId " +
+           "ORDER BY c.lastMessageAt DESC")
+    List<Object[]> findInbox(@Param("userId") Long userId);
+
+    /**
+     * Record a new message in place, creating the row for the first message of a conversation
+     * (atomic in the database, no read-modify-write). HOLDLOCK keeps two first messages from
+     * both taking the insert branch. The latest message only moves forward, so out-of-order
+     * commits cannot regress it.
+     */
+    @Modifying
+    @Query(value = "MERGE conversations WITH (HOLDLOCK) AS c " +
+           "USING (SELECT :userAId AS user_a_id, :userBId AS user_b_id, :productId AS product_id) AS s " +
+           "ON c.user_a_id = s.user_a_id AND c.user_b_id = s.user_b_id AND c.product_id = s.product_id " +
+           "WHEN MATCHED THEN UPDATE SET " +
+           "last_message_at = CASE WHEN :messageId > c.last_message_id THEN :sentAt ELSE c.last_message_at END, " +
+           "last_message_id = CASE WHEN :messageId > c.last_message_id THEN :messageId ELSE c.last_message_id END, " +
+           "unread_a = c.unread_a + :unreadA, " +
+           "unread_b = c.unread_b + :unreadB " +
+           "WHEN NOT MATCHED THEN INSERT " +
+           "(user_a_id, user_b_id, product_id, last_message_id, last_message_at, unread_a, unread_b) VALUES " +
+           "(:userAId, :userBId, :productId, :messageId, :sentAt, :unreadA, :unreadB);",
+           nativeQuery = true)
+    int upsertMessage(@Param("userAId") Long userAId,
+                      @Param("userBId") Long userBId,
+                      @Param("productId") Long productId,
+                      @Param("messageId") Long messageId,
+                      @Param("sentAt") LocalDateTime sentAt,
+                      @Param("unreadA") long unreadA,
+                      @Param("unreadB") long unreadB);
+
+    /**
+     * Take read messages off the unread counters, never going below zero
+     */
+    @Modifying
+    @Query("UPDATE ConversationSummary c SET " +
+           "c.unreadA = CASE WHEN c.unreadA > :readA THEN c.unreadA - :readA ELSE 0 END, " +
+           "c.unreadB = CASE WHEN c.unreadB > :readB THEN c.unreadB - :readB ELSE 0 END " +
+           "WHERE c.userAId = :userAId AND c.userBId = :userBId AND c.productId = :productId")
+    int applyRead(@Param("userAId") Long userAId,
+                  @Param("userBId") Long userBId,
+                  @Param("productId") Long productId,
+                  @Param("readA") long readA,
+                  @Param("readB") long readB);
+}
@@ -0,0 +1,62 @@
+package com.uon.marketplace.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.uon.marketplace.entities.OutboundEmail;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<OutboundEmail, Long> {
+
+    /**
+     * Ids of pending emails that are due, oldest first
+     */
+    @Query("SELECT e.emailId FROM OutboundEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt, e.emailId")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Take ownership of the given emails if they are still pending.
+     * Rows claimed by another dispatcher in the meantime are skipped.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENDING', e.claimToken = :token, e.claimedAt = :now " +
+           "WHERE e.emailId IN :ids AND e.status = 'PENDING'")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    List<OutboundEmail> findByClaimToken(String claimToken);
+
+    /**
+     * Return emails stuck in SENDING (dispatcher died mid-batch) to the queue
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = 'PENDING', e.claimToken = NULL " +
+           "WHERE e.status = 'SENDING' AND e.claimedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    /**
+     * Delete emails that are done: SENT before the cutoff, or FAILED with their last attempt before it
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundEmail e WHERE (e.status = 'SENT' AND e.sentAt < :before) " +
+           "OR (e.status = 'FAILED' AND e.claimedAt < :before)")
+    int purgeFinishedBefore(@Param("before") LocalDateTime before);
+
+    @Query("SELECT e.status, COUNT(e) FROM OutboundEmail e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboundEmail e WHERE e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -1,14 +1,22 @@
 package com.uon.marketplace.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.uon.marketplace.entities.MarketPlaceProduct;
 
 @Repository
-public interface MarketPlaceProductRepository extends JpaRepository<MarketPlaceProduct, Long> {
+public interface MarketPlaceProductRepository extends JpaRepository<MarketPlaceProduct, Long>,
+        JpaSpecificationExecutor<MarketPlaceProduct> {
 
     List<MarketPlaceProduct> findBySellerId(Long sellerId);
 
@@ -26,5 +34,39 @@ public interface MarketPlaceProductRepository extends JpaRepository<MarketPlaceP
     
     // Moderation-related queries
     List<MarketPlaceProduct> findByFlagged(Boolean flagged);
-}
+    
+    /**
+     * Apply an async moderation verdict, but only if the listing is still pending_review.
+     * Returns 0 when someone else (admin, seller) changed the listing first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MarketPlaceProduct p SET p.status = :status, p.flagged = :flagged, " +
+           "p.flagReason = :flagReason, p.lastUpdate = :lastUpdate " +
+           "WHERE p.productId = :productId AND p.status = 'pending_review'")
+    int applyPendingModeration(@Param("productId") Long productId,
+                               @Param("status") String status,
+                               @Param("flagged") Boolean flagged,
+                               @Param("flagReason") String flagReason,
+                               @Param("lastUpdate") LocalDateTime lastUpdate);
 
+    /**
+     * Flag a listing whose async moderation could not run, so it shows up in the admin flagged queue.
+     * Only touches listings still waiting for moderation (pending_review, not flagged yet).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MarketPlaceProduct p SET p.flagged = true, p.flagReason = :flagReason, p.lastUpdate = :lastUpdate " +
+           "WHERE p.productId = :productId AND p.status = 'pending_review' " +
+           "AND (p.flagged = false OR p.flagged IS NULL)")
+    int flagFailedModeration(@Param("productId") Long productId,
+                             @Param("flagReason") String flagReason,
+                             @Param("lastUpdate") LocalDateTime lastUpdate);
+
+    /**
+     * Listings waiting for async moderation since before the cutoff (lost to a restart or a dropped task)
+     */
+    @Query("SELECT p.productId FROM MarketPlaceProduct p WHERE p.status = 'pending_review' " +
+           "AND (p.flagged = false OR p.flagged IS NULL) AND p.lastUpdate < :before ORDER BY p.lastUpdate ASC")
+    List<Long> findStalePendingModeration(@Param("before") LocalDateTime before, Limit limit);
+}
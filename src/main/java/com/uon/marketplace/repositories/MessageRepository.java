@@ -1,8 +1,11 @@
 package com.uon.marketplace.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -28,23 +31,73 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     );
     
     /**
-     * Find messages with IDs (used for efficient fetching)
+     * Latest messages of a conversation, newest first (history paging)
+     * Served by idx_messages_thread (product_id, sender_id, receiver_id, sent_at)
      */
-    @Query("SELECT m FROM Message m WHERE m.messageId IN :messageIds")
-    List<Message> findAllByMessageIdIn(@Param("messageIds") List<Long> messageIds);
+    @Query("SELECT m FROM Message m WHERE m.productId = :productId AND " +
+           "((m.senderId = :userId1 AND m.receiverId = :userId2) OR " +
+           "(m.senderId = :userId2 AND m.receiverId = :userId1)) " +
+           "ORDER BY m.sentAt DESC, m.messageId DESC")
+    List<Message> findConversationLatest(
+        @Param("userId1") Long userId1,
+        @Param("userId2") Long userId2,
+        @Param("productId") Long productId,
+        Limit limit
+    );
+    
+    /**
+     * Messages of a conversation older than the (sentAt, messageId) cursor, newest first
+     */
+    @Query("SELECT m FROM Message m WHERE m.productId = :productId AND " +
+           "((m.senderId = :userId1 AND m.receiverId = :userId2) OR " +
+           "(m.senderId = :userId2 AND m.receiverId = :userId1)) AND " +
+           "(m.sentAt < :sentAt OR (m.sentAt = :sentAt AND m.messageId < :messageId)) " +
+           "ORDER BY m.sentAt DESC, m.messageId DESC")
+    List<Message> findConversationBefore(
+        @Param("userId1") Long userId1,
+        @Param("userId2") Long userId2,
+        @Param("productId") Long productId,
+        @Param("sentAt") LocalDateTime sentAt,
+        @Param("messageId") Long messageId,
+        Limit limit
+    );
+    
+    /**
+     * Mark one message read for its receiver, only if it is still unread
+     * @return 1 when this call changed it, 0 when it was already read
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true, m.readAt = :now WHERE " +
+           "m.messageId = :messageId AND m.receiverId = :receiverId AND m.isRead = false")
+    int markRead(
+        @Param("messageId") Long messageId,
+        @Param("receiverId") Long receiverId,
+        @Param("now") LocalDateTime now
+    );
     
     /**
-     * Find all unique conversations for a user
-     * Groups by product and other participant, returns latest message per conversation
+     * Mark the messages a user received in a conversation read, up to and including a message id,
+     * in one statement. Clears the persistence context, so entities loaded earlier are detached
+     * and cannot be flushed back over the new state.
+     * @return number of messages changed
      */
-    @Query("SELECT m FROM Message m WHERE m.messageId IN (" +
-           "SELECT MAX(m2.messageId) FROM Message m2 WHERE " +
-           "m2.senderId = :userId OR m2.receiverId = :userId " +
-           "GROUP BY " +
-           "CASE WHEN m2.senderId = :userId THEN m2.receiverId ELSE m2.senderId END, " +
-           "m2.productId) " +
-           "ORDER BY m.sentAt DESC")
-    List<Message> findLatestConversations(@Param("userId") Long userId);
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Message m SET m.isRead = true, m.readAt = :now WHERE " +
+           "m.receiverId = :receiverId AND m.senderId = :senderId AND m.productId = :productId AND " +
+           "m.isRead = false AND m.messageId <= :upToMessageId")
+    int markConversationRead(
+        @Param("receiverId") Long receiverId,
+        @Param("senderId") Long senderId,
+        @Param("productId") Long productId,
+        @Param("upToMessageId") Long upToMessageId,
+        @Param("now") LocalDateTime now
+    );
+    
+    /**
+     * Find messages with IDs (used for efficient fetching)
+     */
+    @Query("SELECT m FROM Message m WHERE m.messageId IN :messageIds")
+    List<Message> findAllByMessageIdIn(@Param("messageIds") List<Long> messageIds);
     
     /**
      * Count unread messages for a user
@@ -52,11 +105,34 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiverId = :userId AND m.isRead = false")
     Long countUnreadMessages(@Param("userId") Long userId);
     
+    /**
+     * Unread message counts for many receivers, as [receiverId, count]; receivers with none are omitted
+     */
+    @Query("SELECT m.receiverId, COUNT(m) FROM Message m WHERE m.receiverId IN :userIds AND m.isRead = false " +
+           "GROUP BY m.receiverId")
+    List<Object[]> countUnreadByReceiverIn(@Param("userIds") List<Long> userIds);
+    
     /**
      * Find all unread messages for a user
      */
     List<Message> findByReceiverIdAndIsReadFalseOrderBySentAtDesc(Long receiverId);
-    
+
+    /**
+     * Unread messages from one sender about one product within a message id range
+     * Ordered oldest first (used by the notification email digest)
+     */
+    @Query("SELECT m FROM Message m WHERE m.receiverId = :receiverId AND m.senderId = :senderId AND " +
+           "m.productId = :productId AND m.isRead = false AND " +
+           "m.messageId BETWEEN :fromId AND :toId " +
+           "ORDER BY m.messageId ASC")
+    List<Message> findUnreadInRange(
+        @Param("receiverId") Long receiverId,
+        @Param("senderId") Long senderId,
+        @Param("productId") Long productId,
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId
+    );
+
     /**
      * Find all messages where user is sender or receiver
      */
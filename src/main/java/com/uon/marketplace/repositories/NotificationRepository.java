@@ -2,12 +2,40 @@ package com.uon.marketplace.repositories;
 
 import com.uon.marketplace.entities.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     Long countByUserIdAndReadFalse(Long userId);
+
+    /**
+     * Unread notification counts for many users, as [userId, count]; users with none are omitted
+     */
+    @Query("SELECT n.userId, COUNT(n) FROM Notification n WHERE n.userId IN :userIds AND n.read = false GROUP BY n.userId")
+    List<Object[]> countUnreadByUserIn(@Param("userIds") List<Long> userIds);
+
+    /**
+     * Mark one of the user's notifications read, only if it is still unread
+     * @return 1 when this call changed it, 0 when it was already read (or is not theirs)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :now WHERE " +
+           "n.notificationId = :notificationId AND n.userId = :userId AND n.read = false")
+    int markRead(@Param("notificationId") Long notificationId, @Param("userId") Long userId,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Mark all of a user's unread notifications read in one statement
+     * @return number of notifications changed
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true, n.readAt = :now WHERE n.userId = :userId AND n.read = false")
+    int markAllRead(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 }
@@ -4,11 +4,14 @@ import com.uon.marketplace.entities.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findByProductIdOrderByDisplayOrderAsc(Long productId);
+    // Images for a whole page of products in one query (product_id IN (...))
+    List<ProductImage> findByProductIdInOrderByProductIdAscDisplayOrderAsc(Collection<Long> productIds);
     void deleteByProductId(Long productId);
     ProductImage findByProductIdAndIsPrimaryTrue(Long productId);
     void deleteByImageUrl(String imageUrl);
@@ -0,0 +1,49 @@
+package com.uon.marketplace.repositories;
+
+import com.uon.marketplace.entities.RatingSummary;
+import com.uon.marketplace.entities.RatingSummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RatingSummaryRepository extends JpaRepository<RatingSummary, RatingSummaryId> {
+
+    /**
+     * Apply a review change in place, creating the row on a user's first review
+     * (atomic in the database, no read-modify-write). HOLDLOCK keeps two first reviews
+     * for the same user from both taking the insert branch.
+     * added / removed are the star values entering and leaving the summary, 0 for none.
+     * A missing row is only created when the change adds a review.
+     */
+    @Modifying
+    @Query(value = "MERGE rating_summaries WITH (HOLDLOCK) AS t " +
+           "USING (SELECT :userId AS user_id, :role AS role) AS s " +
+           "ON t.user_id = s.user_id AND t.role = s.role " +
+           "WHEN MATCHED THEN UPDATE SET " +
+           "review_count = t.review_count + :countDelta, " +
+           "rating_sum = t.rating_sum + :added - :removed, " +
+           "stars_1 = t.stars_1 + (CASE WHEN :added = 1 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 1 THEN 1 ELSE 0 END), " +
+           "stars_2 = t.stars_2 + (CASE WHEN :added = 2 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 2 THEN 1 ELSE 0 END), " +
+           "stars_3 = t.stars_3 + (CASE WHEN :added = 3 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 3 THEN 1 ELSE 0 END), " +
+           "stars_4 = t.stars_4 + (CASE WHEN :added = 4 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 4 THEN 1 ELSE 0 END), " +
+           "stars_5 = t.stars_5 + (CASE WHEN :added = 5 THEN 1 ELSE 0 END) - (CASE WHEN :removed = 5 THEN 1 ELSE 0 END), " +
+           "updated_at = :now " +
+           "WHEN NOT MATCHED AND :countDelta > 0 THEN INSERT " +
+           "(user_id, role, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) VALUES " +
+           "(:userId, :role, :countDelta, :added, " +
+           "CASE WHEN :added = 1 THEN 1 ELSE 0 END, CASE WHEN :added = 2 THEN 1 ELSE 0 END, " +
+           "CASE WHEN :added = 3 THEN 1 ELSE 0 END, CASE WHEN :added = 4 THEN 1 ELSE 0 END, " +
+           "CASE WHEN :added = 5 THEN 1 ELSE 0 END, :now);",
+           nativeQuery = true)
+    int upsertDelta(@Param("userId") Long userId,
+                    @Param("role") String role,
+                    @Param("countDelta") long countDelta,
+                    @Param("added") long added,
+                    @Param("removed") long removed,
+                    @Param("now") LocalDateTime now);
+}
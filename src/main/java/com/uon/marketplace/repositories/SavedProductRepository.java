@@ -1,9 +1,14 @@
 package com.uon.marketplace.repositories;
 
+import com.uon.marketplace.dto.responses.SavedProductCard;
 import com.uon.marketplace.entities.SavedProduct;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +21,25 @@ public interface SavedProductRepository extends JpaRepository<SavedProduct, Long
     boolean existsByUserIdAndProductId(Long userId, Long productId);
     
     void deleteByUserIdAndProductId(Long userId, Long productId);
+
+    String CARD_SELECT =
+        "SELECT new com.uon.marketplace.dto.responses.SavedProductCard(s.savedId, s.userId, s.productId, s.savedDate, " +
+        "p.productName, p.price, p.productImageUrl, p.status, p.category, p.condition) " +
+        "FROM SavedProduct s LEFT JOIN MarketPlaceProduct p ON p.productId = s.productId ";
+
+    /**
+     * Saved products with their card data, newest first, in one join
+     */
+    @Query(CARD_SELECT + "WHERE s.userId = :userId ORDER BY s.savedDate DESC, s.savedId DESC")
+    List<SavedProductCard> findCardsByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Next page of findCardsByUserId: rows strictly after (savedDate, savedId) in newest-first order
+     */
+    @Query(CARD_SELECT + "WHERE s.userId = :userId AND (s.savedDate < :savedDate " +
+           "OR (s.savedDate = :savedDate AND s.savedId < :savedId)) ORDER BY s.savedDate DESC, s.savedId DESC")
+    List<SavedProductCard> findCardsByUserIdAfter(@Param("userId") Long userId,
+                                                  @Param("savedDate") LocalDateTime savedDate,
+                                                  @Param("savedId") Long savedId,
+                                                  Limit limit);
 }
@@ -40,6 +40,9 @@ public class AdminService {
     @Autowired
     private ResponseMapper responseMapper;
 
+    @Autowired
+    private ReviewEnrichmentService reviewEnrichmentService;
+
     public AppUserResponse createAdmin(CreateUserRequest request) {
         AppUserRequest appUserReq = request.getAppUser();
        
@@ -126,20 +129,12 @@ public class AdminService {
     public List<SellerReviewResponse> getSellerReviewsByUserId(Long userId) {
         // Assuming there's a SellerReviewService to fetch reviews
         List<SellerReviews> reviews = sellerReviewService.getReviewsBySellerId(userId);
-        List<SellerReviewResponse> responseList = new ArrayList<>();
-        for (SellerReviews review : reviews) {
-            responseList.add(responseMapper.converToSellerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toSellerReviewResponses(reviews);
     }
     //get all Buyer reviews of user by id
     public List<com.uon.marketplace.dto.responses.BuyerReviewResponse> getBuyerReviewsByUserId(Long userId) {
         List<com.uon.marketplace.entities.BuyerReviews> reviews = buyerReviewService.getReviewsByBuyerId(userId);
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> responseList = new ArrayList<>();
-        for (com.uon.marketplace.entities.BuyerReviews review : reviews) {
-            responseList.add(responseMapper.convertToBuyerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toBuyerReviewResponses(reviews);
     }
 
     public AppUser verifyUser(Long userId) {
@@ -161,33 +156,17 @@ public class AdminService {
         List<com.uon.marketplace.entities.BuyerReviews> buyerReviewsGiven = buyerReviewService.getReviewsByReviewerId(userId);
         List<com.uon.marketplace.entities.BuyerReviews> buyerReviewsReceived = buyerReviewService.getReviewsByBuyerId(userId);
 
-        // SellerReviewResponse sellerReviewsGivenResponse = null;
-        // SellerReviewResponse sellerReviewsReceivedResponse = null;
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewsGivenResponse = new ArrayList<>();
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewsReceivedResponse = new ArrayList<>();
-        List<SellerReviewResponse> sellerReviewsGivenResponseList = new ArrayList<>();
-        List<SellerReviewResponse> sellerReviewsReceivedResponseList = new ArrayList<>();
-
-        if (!sellerReviewsGiven.isEmpty()) {
-            for (SellerReviews review : sellerReviewsGiven) {
-                sellerReviewsGivenResponseList.add(responseMapper.converToSellerReviewResponse(review));
-            }
-        }
-        if (!sellerReviewsReceived.isEmpty()) {
-            for (SellerReviews review : sellerReviewsReceived) {
-                sellerReviewsReceivedResponseList.add(responseMapper.converToSellerReviewResponse(review));
-            }
-        }
-        if (!buyerReviewsGiven.isEmpty()) {
-            for (com.uon.marketplace.entities.BuyerReviews review : buyerReviewsGiven) {
-                buyerReviewsGivenResponse.add(responseMapper.convertToBuyerReviewResponse(review));
-            }
-        }
-        if (!buyerReviewsReceived.isEmpty()) {
-            for (com.uon.marketplace.entities.BuyerReviews review : buyerReviewsReceived) {
-                buyerReviewsReceivedResponse.add(responseMapper.convertToBuyerReviewResponse(review));
-            }
-        }
+        // Profiles and products for all four lists in one batched lookup
+        List<SellerReviews> allSellerReviews = new ArrayList<>(sellerReviewsGiven);
+        allSellerReviews.addAll(sellerReviewsReceived);
+        List<com.uon.marketplace.entities.BuyerReviews> allBuyerReviews = new ArrayList<>(buyerReviewsGiven);
+        allBuyerReviews.addAll(buyerReviewsReceived);
+        ReviewEnrichmentService.Lookup lookup = reviewEnrichmentService.lookupFor(allSellerReviews, allBuyerReviews);
+
+        List<SellerReviewResponse> sellerReviewsGivenResponseList = lookup.toSellerReviewResponses(sellerReviewsGiven);
+        List<SellerReviewResponse> sellerReviewsReceivedResponseList = lookup.toSellerReviewResponses(sellerReviewsReceived);
+        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewsGivenResponse = lookup.toBuyerReviewResponses(buyerReviewsGiven);
+        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewsReceivedResponse = lookup.toBuyerReviewResponses(buyerReviewsReceived);
         AppUserResponse appUserResponse = new AppUserResponse(user, profile);
         //get all listed products by user
         List<MarketPlaceProduct> productsListed = marketPlaceProductService.getProductsBySellerId(userId);
@@ -13,6 +13,9 @@ public class AppUserService {
     @Autowired
     private AppUserRepository appUserRepository;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
     public List<AppUser> getAllUsers() {
         return appUserRepository.findAll();
     }
@@ -31,13 +34,16 @@ public class AppUserService {
                     user.setRole(userDetails.getRole());
                     user.setPasswordHash(userDetails.getPasswordHash());
                     user.setStatus(userDetails.getStatus());
-                    return appUserRepository.save(user);
+                    AppUser saved = appUserRepository.save(user);
+                    userSummaryCache.invalidate(id);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     public void deleteUser(Long id) {
         appUserRepository.deleteById(id);
+        userSummaryCache.invalidate(id);
     }
 
     public Optional<AppUser> findByEmail(String email) {
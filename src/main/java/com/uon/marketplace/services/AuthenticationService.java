@@ -26,7 +26,7 @@ public class AuthenticationService {
     private final TwoFactorAuthService twoFactorAuthService;
     private final JwtService jwtService;
     private final EmailVerificationService emailVerificationService; // reuse code gen + hashing
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final PasswordResetService passwordResetService;
 
     public AuthenticationService(
@@ -34,14 +34,14 @@ public class AuthenticationService {
             TwoFactorAuthService twoFactorAuthService,
             JwtService jwtService,
             EmailVerificationService emailVerificationService,
-            EmailService emailService,
+            EmailOutboxService emailOutboxService,
             PasswordResetService passwordResetService
     ) {
         this.userRepository = userRepository;
         this.twoFactorAuthService = twoFactorAuthService;
         this.jwtService = jwtService;
         this.emailVerificationService = emailVerificationService;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
         this.passwordResetService = passwordResetService;
     }
 
@@ -137,7 +137,7 @@ public class AuthenticationService {
                         "Use this verification code to finish signing in: " + code + "\n\n" +
                         "This code expires in 10 minutes. If you didn't try to sign in, you can ignore this email.\n\n" +
                         "— UON Marketplace";
-                emailService.send(user.getEmail(), subject, body);
+                emailOutboxService.enqueue(user.getEmail(), subject, body);
 
                 return new LoginResponse(
                         user.getUserId(), user.getEmail(), user.getRole().name(), null, true,
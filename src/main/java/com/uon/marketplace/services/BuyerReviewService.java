@@ -2,9 +2,11 @@ package com.uon.marketplace.services;
 
 import com.uon.marketplace.dto.requests.BuyerReviewRequest;
 import com.uon.marketplace.entities.BuyerReviews;
+import com.uon.marketplace.entities.RatingSummary;
 import com.uon.marketplace.repositories.BuyerReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,10 @@ public class BuyerReviewService {
     @Autowired
     private BuyerReviewRepository buyerReviewRepository;
 
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Transactional
     public BuyerReviews createReview(BuyerReviewRequest request) {
         BuyerReviews review = new BuyerReviews();
         review.setReviewerId(request.getReviewerId());
@@ -21,14 +27,20 @@ public class BuyerReviewService {
         review.setRating(request.getRating());
         review.setProductId(request.getProductId());
         review.setReviewText(request.getReviewText());
-        return buyerReviewRepository.save(review);
+        BuyerReviews saved = buyerReviewRepository.save(review);
+        ratingSummaryService.reviewAdded(RatingSummary.BUYER, saved.getBuyerId(), saved.getRating());
+        return saved;
     }
+    @Transactional
     public BuyerReviews updateReview(Long reviewId, BuyerReviewRequest request) {
         return buyerReviewRepository.findById(reviewId)
                 .map(review -> {
+                    Integer oldRating = review.getRating();
                     review.setRating(request.getRating());
                     review.setReviewText(request.getReviewText());
-                    return buyerReviewRepository.save(review);
+                    BuyerReviews saved = buyerReviewRepository.save(review);
+                    ratingSummaryService.reviewChanged(RatingSummary.BUYER, saved.getBuyerId(), oldRating, saved.getRating());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Review not found"));
     }   
@@ -45,20 +57,20 @@ public class BuyerReviewService {
         return buyerReviewRepository.findByReviewerId(reviewerId);
     }
 
+    @Transactional
     public void deleteReview(Long reviewId) {
-        buyerReviewRepository.deleteById(reviewId);
+        buyerReviewRepository.findById(reviewId).ifPresent(review -> {
+            buyerReviewRepository.delete(review);
+            ratingSummaryService.reviewRemoved(RatingSummary.BUYER, review.getBuyerId(), review.getRating());
+        });
     }
     public List<BuyerReviews> getReviewsByProductId(Long productId) {
         return buyerReviewRepository.findAll().stream()
                 .filter(review -> review.getProductId().equals(productId))
                 .toList();
     }
+    // Served from rating_summaries (one primary-key read)
     public Double getAverageRatingForBuyer(Long userId) {
-        List<BuyerReviews> reviews = buyerReviewRepository.findByBuyerId(userId);
-        if (reviews.isEmpty()) {
-            return 0.0;
-        }
-        double sum = reviews.stream().mapToDouble(BuyerReviews::getRating).sum();
-        return sum / reviews.size();
+        return ratingSummaryService.getAverageRating(RatingSummary.BUYER, userId);
     }
 }
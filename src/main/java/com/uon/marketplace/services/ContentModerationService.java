@@ -1,13 +1,16 @@
 package com.uon.marketplace.services;
 
-import com.fasterxml.jackson.annotation.JsonCreator.Mode;
 import com.uon.marketplace.dto.requests.MarketPlaceProductRequest;
 import com.uon.marketplace.dto.responses.ModerationResult;
 import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.utils.ProfanityScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ContentModerationService {
@@ -18,6 +21,62 @@ public class ContentModerationService {
     @Autowired
     private ProfanityFilter profanityFilter;
     
+    @Autowired
+    private ModerationResultCache resultCache;
+    
+    private static final Set<String> BANNED_CATEGORIES = Set.of(
+        "drugs",
+        "weapons",
+        "alcohol",
+        "tobacco",
+        "vaping",
+        "adult content"
+    );
+    
+    // Stages run cheapest first and stop at the first verdict.
+    // Products: category lookup, then one keyword pass, then one profanity pass.
+    private final ModerationPipeline productPipeline = new ModerationPipeline("product")
+        .addStage("banned-category", input -> isBannedCategory(input.category())
+            ? ModerationResult.rejected("Category not allowed: " + input.category())
+            : null)
+        .addStage("prohibited-keywords", input -> {
+            List<String> prohibitedItems = keywordFilter.findProhibitedKeywords(input.text());
+            return prohibitedItems.isEmpty() ? null
+                : ModerationResult.rejected("Contains prohibited items: " + String.join(", ", prohibitedItems))
+                    .setDetectedKeywords(prohibitedItems);
+        })
+        .addStage("profanity", input -> {
+            ProfanityScanner.Result profanity = profanityFilter.scan(input.text());
+            return profanity.found()
+                ? ModerationResult.flagged("Contains inappropriate language").setDetectedKeywords(profanity.words())
+                : null;
+        });
+    
+    // Reviews are stricter on profanity
+    private final ModerationPipeline reviewPipeline = new ModerationPipeline("review")
+        .addStage("profanity", input -> {
+            ProfanityScanner.Result profanity = profanityFilter.scan(input.text());
+            return profanity.found()
+                ? ModerationResult.rejected("Review contains profanity").setDetectedKeywords(profanity.words())
+                : null;
+        })
+        .addStage("scam-indicators", input ->
+            keywordFilter.containsProhibitedKeywordsByCategory(input.text(), "scam_indicators")
+                ? ModerationResult.flagged("Review may contain spam or scam language")
+                : null);
+    
+    // Messages only need a yes/no, so every stage stops at its first hit
+    private final ModerationPipeline messagePipeline = new ModerationPipeline("message")
+        .addStage("profanity", input -> profanityFilter.containsProfanity(input.text())
+            ? ModerationResult.flagged("Message contains inappropriate language")
+            : null)
+        .addStage("prohibited-item-references", input ->
+            // In case users try to trade prohibited items via messages
+            keywordFilter.containsProhibitedKeywordsByCategory(input.text(), "drugs")
+                || keywordFilter.containsProhibitedKeywordsByCategory(input.text(), "weapons")
+                ? ModerationResult.flagged("Message may contain prohibited item references")
+                : null);
+    
     /**
      * Moderate a product listing (title + description)
      */
@@ -37,64 +96,62 @@ public class ContentModerationService {
      * Moderate product text (can be called before product is created)
      */
     public ModerationResult moderateProductText(String text, String category) {
-        // Layer 1: Check for prohibited items (drugs, weapons, etc.)
-        List<String> prohibitedItems = keywordFilter.findProhibitedKeywords(text);
-        if (!prohibitedItems.isEmpty()) {
-            return ModerationResult.rejected("Contains prohibited items: " + String.join(", ", prohibitedItems))
-                .setDetectedKeywords(prohibitedItems);
-        }
-        
-        // Layer 2: Check for profanity
-        if (profanityFilter.containsProfanity(text)) {
-            List<String> badWords = profanityFilter.findProfanity(text);
-            return ModerationResult.flagged("Contains inappropriate language")
-                .setDetectedKeywords(badWords);
-        }
-        
-        // Layer 3: Check banned categories
-        if (isBannedCategory(category)) {
-            return ModerationResult.rejected("Category not allowed: " + category);
+        // The same listing text is typically checked on preview, submit and every re-save
+        return resultCache.get(productPipeline.getName(), text, category,
+            keywordFilter.getCacheVersion(), profanityFilter.getVersion(),
+            () -> productPipeline.run(text, category));
+    }
+    
+    /**
+     * Cheap deterministic checks only (currently the banned category list).
+     * Used inline when full moderation runs asynchronously.
+     */
+    public ModerationResult moderateProductInline(MarketPlaceProduct product) {
+        if (isBannedCategory(product.getCategory())) {
+            return ModerationResult.rejected("Category not allowed: " + product.getCategory());
         }
-        
-        // All checks passed
         return ModerationResult.approved();
     }
     
+    /**
+     * Moderate product text without touching the verdict cache.
+     * For catalogue-wide re-scans, whose one-off texts would only evict useful entries.
+     */
+    public ModerationResult rescanProductText(String text, String category) {
+        return productPipeline.run(text, category);
+    }
+    
     /**
      * Moderate a review text
      */
     public ModerationResult moderateReview(String reviewText) {
-        // For reviews, we're stricter on profanity
-        if (profanityFilter.containsProfanity(reviewText)) {
-            List<String> badWords = profanityFilter.findProfanity(reviewText);
-            return ModerationResult.rejected("Review contains profanity")
-                .setDetectedKeywords(badWords);
-        }
-        
-        // Check for scam indicators or spam
-        if (keywordFilter.containsProhibitedKeywordsByCategory(reviewText, "scam_indicators")) {
-            return ModerationResult.flagged("Review may contain spam or scam language");
-        }
-        
-        return ModerationResult.approved();
+        return reviewPipeline.run(reviewText, null);
     }
     
     /**
      * Moderate a message
      */
     public ModerationResult moderateMessage(String messageContent) {
-        // Check profanity
-        if (profanityFilter.containsProfanity(messageContent)) {
-            return ModerationResult.flagged("Message contains inappropriate language");
-        }
-        
-        // Check for prohibited items (in case users try to trade prohibited items via messages)
-        if (keywordFilter.containsProhibitedKeywordsByCategory(messageContent, "drugs") ||
-            keywordFilter.containsProhibitedKeywordsByCategory(messageContent, "weapons")) {
-            return ModerationResult.flagged("Message may contain prohibited item references");
+        return messagePipeline.run(messageContent, null);
+    }
+    
+    /**
+     * Per-stage call, verdict and latency counters for every pipeline, plus verdict cache metrics
+     */
+    public Map<String, Object> getPipelineStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (ModerationPipeline pipeline : List.of(productPipeline, reviewPipeline, messagePipeline)) {
+            stats.put(pipeline.getName(), pipeline.getStats());
         }
-        
-        return ModerationResult.approved();
+        stats.put("cache", resultCache.getStats());
+        return stats;
+    }
+    
+    /**
+     * Drop all cached verdicts (e.g. after the keyword or profanity lists change)
+     */
+    public void invalidateCache() {
+        resultCache.invalidateAll();
     }
     
     /**
@@ -108,18 +165,6 @@ public class ContentModerationService {
      * Check if category is banned
      */
     private boolean isBannedCategory(String category) {
-        if (category == null) return false;
-        
-        List<String> bannedCategories = List.of(
-            "Drugs",
-            "Weapons",
-            "Alcohol",
-            "Tobacco",
-            "Vaping",
-            "Adult Content"
-        );
-        
-        return bannedCategories.stream()
-            .anyMatch(banned -> banned.equalsIgnoreCase(category));
+        return category != null && BANNED_CATEGORIES.contains(category.trim().toLowerCase());
     }
 }
@@ -0,0 +1,83 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.Message;
+import com.uon.marketplace.repositories.ConversationSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the conversations table so the inbox is one indexed read instead of grouping
+ * a user's whole message history and counting unread messages in Java.
+ *
+ * MessageService calls the hooks inside its own transaction, so a message (or its read
+ * state) and the conversation row commit or roll back together. rebuildAll() recomputes
+ * every row from the messages table to correct any drift (runs nightly and on demand).
+ */
+@Service
+public class ConversationSummaryService {
+
+    // Pair key: user_a_id is the smaller of the two ids, whoever sent the message
+    private static final String USER_A = "CASE WHEN sender_id < receiver_id THEN sender_id ELSE receiver_id END";
+    private static final String USER_B = "CASE WHEN sender_id < receiver_id THEN receiver_id ELSE sender_id END";
+
+    private static final String REBUILD =
+        "INSERT INTO conversations (user_a_id, user_b_id, product_id, last_message_id, last_message_at, unread_a, unread_b) " +
+        "SELECT g.user_a_id, g.user_b_id, g.product_id, g.last_message_id, m.sent_at, g.unread_a, g.unread_b FROM (" +
+        "SELECT " + USER_A + " AS user_a_id, " + USER_B + " AS user_b_id, product_id, " +
+        "MAX(message_id) AS last_message_id, " +
+        "SUM(CASE WHEN is_read = 0 AND receiver_id <= sender_id THEN 1 ELSE 0 END) AS unread_a, " +
+        "SUM(CASE WHEN is_read = 0 AND receiver_id > sender_id THEN 1 ELSE 0 END) AS unread_b " +
+        "FROM messages GROUP BY " + USER_A + ", " + USER_B + ", product_id) g " +
+        "JOIN messages m ON m.message_id = g.last_message_id";
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Make a newly saved message the conversation's latest and count it as unread for the receiver,
+     * creating the conversation on its first message
+     */
+    @Transactional
+    public void messageSent(Message message) {
+        Long userA = Math.min(message.getSenderId(), message.getReceiverId());
+        Long userB = Math.max(message.getSenderId(), message.getReceiverId());
+        long unreadA = message.getReceiverId().equals(userA) ? 1 : 0;
+        long unreadB = 1 - unreadA;
+
+        conversationSummaryRepository.upsertMessage(userA, userB, message.getProductId(),
+            message.getMessageId(), message.getSentAt(), unreadA, unreadB);
+    }
+
+    /**
+     * Take messages the receiver has just read (that were unread before) off their unread count
+     */
+    @Transactional
+    public void messagesRead(Long receiverId, Long senderId, Long productId, long count) {
+        if (count <= 0) {
+            return;
+        }
+        Long userA = Math.min(senderId, receiverId);
+        Long userB = Math.max(senderId, receiverId);
+        boolean receiverIsA = receiverId.equals(userA);
+        // Nothing to change on a missing row; rebuildAll() corrects any drift
+        conversationSummaryRepository.applyRead(userA, userB, productId,
+            receiverIsA ? count : 0, receiverIsA ? 0 : count);
+    }
+
+    /**
+     * Recompute every conversation from the messages table (one GROUP BY query).
+     * @return number of conversations written
+     */
+    @Transactional
+    @Scheduled(cron = "${messages.conversations.rebuild-cron:0 15 4 * * *}")
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM conversations");
+        return jdbcTemplate.update(REBUILD);
+    }
+}
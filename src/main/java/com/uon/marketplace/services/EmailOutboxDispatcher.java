@@ -0,0 +1,184 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.OutboundEmail;
+import com.uon.marketplace.repositories.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers queued email from email_outbox in the background.
+ *
+ * Each run claims a batch of due rows (a conditional UPDATE, so concurrent dispatchers
+ * never send the same row), sends the batch over one SMTP connection, and marks each row
+ * SENT or schedules a retry with exponential backoff. A row that keeps failing is marked
+ * FAILED after max-attempts. The body of a SENT or FAILED row is redacted, since it may
+ * hold a one-time code. Rows left in SENDING by a crash are returned to the queue, and
+ * SENT and FAILED rows are purged after the retention period.
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+    // Matches the last_error column length
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.retry-backoff-ms:30000}")
+    private long retryBackoffMs;
+
+    @Value("${email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${email.outbox.stale-claim-minutes:10}")
+    private long staleClaimMinutes;
+
+    @Value("${email.outbox.retention-days:7}")
+    private long retentionDays;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+
+    /**
+     * Drain due emails, one batch at a time, until the queue has no full batch left
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        lastRunAt = LocalDateTime.now();
+        try {
+            int processed;
+            do {
+                processed = dispatchBatch();
+            } while (processed >= batchSize);
+        } catch (Exception e) {
+            System.err.println("Email outbox dispatch failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.maintenance-interval-ms:300000}")
+    public void maintain() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int released = outboxRepository.releaseStale(now.minusMinutes(staleClaimMinutes));
+            if (released > 0) {
+                System.err.println("Email outbox: returned " + released + " stale SENDING rows to the queue");
+            }
+            outboxRepository.purgeFinishedBefore(now.minusDays(retentionDays));
+        } catch (Exception e) {
+            System.err.println("Email outbox maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue depth by status plus delivery counters since startup
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (String status : List.of(OutboundEmail.PENDING, OutboundEmail.SENDING, OutboundEmail.SENT, OutboundEmail.FAILED)) {
+            byStatus.put(status, 0L);
+        }
+        for (Object[] row : outboxRepository.countByStatus()) {
+            byStatus.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        LocalDateTime oldestPending = outboxRepository.findOldestPendingCreatedAt();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", byStatus.get(OutboundEmail.PENDING) + byStatus.get(OutboundEmail.SENDING));
+        stats.put("byStatus", byStatus);
+        stats.put("oldestPendingAgeSeconds",
+            oldestPending != null ? Duration.between(oldestPending, LocalDateTime.now()).getSeconds() : 0);
+        stats.put("sentSinceStartup", sent.sum());
+        stats.put("retriedSinceStartup", retried.sum());
+        stats.put("failedSinceStartup", failed.sum());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = outboxRepository.findDueIds(now, Limit.of(batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        if (outboxRepository.claim(dueIds, token, now) == 0) {
+            // Another dispatcher took them; try again next run
+            return 0;
+        }
+        List<OutboundEmail> batch = outboxRepository.findByClaimToken(token);
+
+        List<SimpleMailMessage> messages = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            messages.add(emailService.toMessage(email.getRecipient(), email.getSubject(), email.getBody()));
+        }
+        Map<SimpleMailMessage, Exception> failures = emailService.sendBatch(messages);
+
+        LocalDateTime finished = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboundEmail email = batch.get(i);
+            Exception error = failures.get(messages.get(i));
+            email.setAttempts(email.getAttempts() + 1);
+            email.setClaimToken(null);
+            if (error == null) {
+                email.setStatus(OutboundEmail.SENT);
+                email.setSentAt(finished);
+                email.setLastError(null);
+                email.setBody(OutboundEmail.REDACTED_BODY);
+                sent.increment();
+            } else if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(OutboundEmail.FAILED);
+                email.setLastError(truncate(error.getMessage()));
+                email.setBody(OutboundEmail.REDACTED_BODY);
+                failed.increment();
+                System.err.println("Giving up on email " + email.getEmailId() + " to " + email.getRecipient()
+                    + " after " + email.getAttempts() + " attempts: " + error.getMessage());
+            } else {
+                email.setStatus(OutboundEmail.PENDING);
+                email.setNextAttemptAt(finished.plus(Duration.ofMillis(backoff(email.getAttempts()))));
+                email.setLastError(truncate(error.getMessage()));
+                retried.increment();
+            }
+        }
+        outboxRepository.saveAll(batch);
+        return batch.size();
+    }
+
+    /**
+     * retry-backoff-ms doubled for every further attempt, capped at max-backoff-ms
+     */
+    private long backoff(int attempts) {
+        long delay = retryBackoffMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
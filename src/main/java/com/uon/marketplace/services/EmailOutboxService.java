@@ -0,0 +1,43 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.OutboundEmail;
+import com.uon.marketplace.repositories.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Queues outgoing email instead of sending it on the request thread.
+ *
+ * enqueue() only inserts an email_outbox row, in the caller's transaction when there is one,
+ * so an email is sent if and only if the business change it belongs to commits.
+ * EmailOutboxDispatcher delivers queued rows in the background.
+ */
+@Service
+public class EmailOutboxService {
+
+    // Matches the subject column length
+    private static final int MAX_SUBJECT_LENGTH = 500;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Transactional
+    public void enqueue(String to, String subject, String body) {
+        if (to == null || to.isBlank()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OutboundEmail email = new OutboundEmail();
+        email.setRecipient(to.trim());
+        email.setSubject(subject == null ? "" : subject.length() > MAX_SUBJECT_LENGTH ? subject.substring(0, MAX_SUBJECT_LENGTH) : subject);
+        email.setBody(body == null ? "" : body);
+        email.setStatus(OutboundEmail.PENDING);
+        email.setAttempts(0);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        outboxRepository.save(email);
+    }
+}
@@ -1,10 +1,20 @@
 package com.uon.marketplace.services;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SMTP delivery. Application code queues mail through EmailOutboxService;
+ * EmailOutboxDispatcher calls sendBatch() from the background.
+ */
 @Service
 public class EmailService {
 
@@ -17,24 +27,52 @@ public class EmailService {
         this.mailSender = mailSender;
     }
 
-    public void send(String to, String subject, String body) {
+    public SimpleMailMessage toMessage(String to, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromAddress);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        return message;
+    }
+
+    /**
+     * Send several messages over one SMTP connection.
+     * @return the messages that could not be sent, with the reason (empty if all were sent)
+     */
+    public Map<SimpleMailMessage, Exception> sendBatch(List<SimpleMailMessage> messages) {
+        Map<SimpleMailMessage, Exception> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        if (fromAddress == null || fromAddress.isBlank()) {
+            for (SimpleMailMessage message : messages) {
+                String[] to = message.getTo();
+                logToConsole(to != null && to.length > 0 ? to[0] : null, message.getSubject(), message.getText());
+            }
+            return failures;
+        }
         try {
-            if (fromAddress == null || fromAddress.isBlank()) {
-                // No SMTP configured; log to console as a fallback for dev
-                System.out.println("[DEV EMAIL] To: " + to);
-                System.out.println("[DEV EMAIL] Subject: " + subject);
-                System.out.println("[DEV EMAIL] Body:\n" + body);
-                return;
+            mailSender.send(messages.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (SimpleMailMessage message : messages) {
+                // No per-message detail means the whole batch failed (e.g. could not connect)
+                if (failed.isEmpty() || failed.containsKey(message)) {
+                    failures.put(message, failed.getOrDefault(message, e));
+                }
+            }
+        } catch (MailException e) {
+            for (SimpleMailMessage message : messages) {
+                failures.put(message, e);
             }
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromAddress);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Don't fail business flow if email fails in dev
-            System.err.println("Failed to send email to " + to + ": " + e.getMessage());
         }
+        return failures;
+    }
+
+    private static void logToConsole(String to, String subject, String body) {
+        System.out.println("[DEV EMAIL] To: " + to);
+        System.out.println("[DEV EMAIL] Subject: " + subject);
+        System.out.println("[DEV EMAIL] Body:\n" + body);
     }
 }
@@ -14,12 +14,15 @@ public class EmailVerificationService {
 
     private static final int CODE_TTL_MINUTES = 15; // 15 minutes
     private final AppUserRepository appUserRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final UserSummaryCache userSummaryCache;
     private final SecureRandom secureRandom = new SecureRandom();
 
-    public EmailVerificationService(AppUserRepository appUserRepository, EmailService emailService) {
+    public EmailVerificationService(AppUserRepository appUserRepository, EmailOutboxService emailOutboxService,
+                                    UserSummaryCache userSummaryCache) {
         this.appUserRepository = appUserRepository;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        this.userSummaryCache = userSummaryCache;
     }
 
     // Generate a 6-digit numeric code as a string
@@ -52,7 +55,7 @@ public class EmailVerificationService {
                 "This code expires in " + CODE_TTL_MINUTES + " minutes.\n\n" +
                 "If you didn't request this, you can ignore this email.\n\n" +
                 "— UON Marketplace";
-        emailService.send(user.getEmail(), subject, body);
+        emailOutboxService.enqueue(user.getEmail(), subject, body);
     }
 
     public boolean verifyCodeForUser(String email, String providedCode) {
@@ -80,6 +83,7 @@ public class EmailVerificationService {
         user.setEmailVerificationCode(null);
         user.setEmailVerificationExpiresAt(null);
         appUserRepository.save(user);
+        userSummaryCache.invalidate(user.getUserId());
         return true;
     }
 
@@ -1,12 +1,25 @@
 package com.uon.marketplace.services;
 
+import com.uon.marketplace.entities.ProhibitedKeyword;
 import com.uon.marketplace.repositories.ProhibitedKeywordRepository;
+import com.uon.marketplace.utils.KeywordAutomaton;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class KeywordFilterService {
@@ -14,10 +27,40 @@ public class KeywordFilterService {
     @Autowired
     private ProhibitedKeywordRepository prohibitedKeywordRepository;
     
-    // Cache for performance (refresh periodically in production)
-    private List<String> cachedKeywords = new ArrayList<>();
-    private long lastCacheUpdate = 0;
-    private static final long CACHE_TTL = 60000; // 1 minute
+    // Immutable snapshot of active keywords, swapped as a whole
+    private final AtomicReference<KeywordSnapshot> snapshot = new AtomicReference<>(KeywordSnapshot.EMPTY);
+    
+    // Bumped whenever a different keyword set is published, so callers can tell which set they saw
+    private final AtomicLong version = new AtomicLong();
+    
+    // Single-flight guard: at most one reload hits the database at a time
+    private final Object loadLock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "keyword-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Value("${moderation.keywords.refresh-interval-ms:60000}")
+    private long cacheTtl;
+    
+    /**
+     * Compiled matchers for all active keywords plus one per category.
+     * Categories are keyed in lower case, matching the case-insensitive DB lookup.
+     * content holds the (category, keyword) pairs the matchers were compiled from.
+     */
+    private record KeywordSnapshot(KeywordAutomaton all, Map<String, KeywordAutomaton> byCategory,
+                                   Set<String> content, long loadedAt, long version) {
+        static final KeywordSnapshot EMPTY = new KeywordSnapshot(KeywordAutomaton.empty(), Map.of(), Set.of(), 0, 0);
+        
+        KeywordAutomaton category(String category) {
+            if (category == null) {
+                return KeywordAutomaton.empty();
+            }
+            return byCategory.getOrDefault(category.toLowerCase(), KeywordAutomaton.empty());
+        }
+    }
     
     /**
      * Check if text contains any prohibited keywords
@@ -27,91 +70,159 @@ public class KeywordFilterService {
             return false;
         }
         
-        List<String> keywords = getActiveKeywords();
-        String lowerText = text.toLowerCase();
-        
-        return keywords.stream()
-            .anyMatch(keyword -> containsKeywordVariation(lowerText, keyword.toLowerCase()));
+        return getSnapshot().all().matchesAny(text);
     }
     
     /**
-     * Check specific category (e.g., only check for drugs)
+     * Check specific category (e.g., only check for drugs).
+     * Served from the in-memory index, no database round trip.
      */
     public boolean containsProhibitedKeywordsByCategory(String text, String category) {
         if (text == null || text.trim().isEmpty()) {
             return false;
         }
         
-        List<String> keywords = prohibitedKeywordRepository.findKeywordsByCategory(category);
-        String lowerText = text.toLowerCase();
-        
-        return keywords.stream()
-            .anyMatch(keyword -> containsKeywordVariation(lowerText, keyword.toLowerCase()));
+        return getSnapshot().category(category).matchesAny(text);
     }
     
     /**
      * Find all prohibited keywords in text (for detailed reporting)
      */
     public List<String> findProhibitedKeywords(String text) {
-        List<String> found = new ArrayList<>();
-        
         if (text == null || text.trim().isEmpty()) {
-            return found;
+            return new ArrayList<>();
         }
         
-        List<String> keywords = getActiveKeywords();
-        String lowerText = text.toLowerCase();
-        
-        for (String keyword : keywords) {
-            if (containsKeywordVariation(lowerText, keyword.toLowerCase())) {
-                found.add(keyword);
-            }
-        }
-        
-        return found;
+        return getSnapshot().all().findAll(text);
+    }
+    
+    /**
+     * Version of the keyword set currently being served (0 until first load).
+     * Changes only when a reload finds different active keywords.
+     */
+    public long getCacheVersion() {
+        return snapshot.get().version();
     }
     
     /**
-     * Check with variations (handles common bypasses like "w33d", "m@rijuana")
+     * Get the current keyword snapshot.
+     * Only the very first call blocks on the database; after that an expired snapshot
+     * keeps being served while a single background reload replaces it (stale-while-revalidate).
+     * Handles common bypasses like "w33d", "m@rijuana" in a single pass over the text.
      */
-    private boolean containsKeywordVariation(String text, String keyword) {
-        // Direct match
-        if (text.contains(keyword)) {
-            return true;
+    private KeywordSnapshot getSnapshot() {
+        KeywordSnapshot current = snapshot.get();
+        
+        // Cold start: one caller loads, concurrent callers wait for that load
+        if (current.version() == 0) {
+            synchronized (loadLock) {
+                current = snapshot.get();
+                if (current.version() == 0) {
+                    current = reload();
+                }
+            }
+            return current;
         }
         
-        // Common character substitutions (leet speak)
-        String pattern = keyword
-            .replace("a", "[a@]")
-            .replace("e", "[e3]")
-            .replace("i", "[i1!]")
-            .replace("o", "[o0]")
-            .replace("s", "[s$5]");
+        // Expired: serve what we have and revalidate asynchronously
+        if (System.currentTimeMillis() - current.loadedAt() > cacheTtl) {
+            triggerBackgroundRefresh();
+        }
         
-        Pattern regex = Pattern.compile("\\b" + pattern + "\\b", Pattern.CASE_INSENSITIVE);
-        return regex.matcher(text).find();
+        return current;
     }
     
     /**
-     * Get active keywords with caching
+     * Periodic background reload so request threads normally never see an expired snapshot
      */
-    private List<String> getActiveKeywords() {
-        long now = System.currentTimeMillis();
-        
-        // Refresh cache if expired
-        if (cachedKeywords.isEmpty() || (now - lastCacheUpdate) > CACHE_TTL) {
-            cachedKeywords = prohibitedKeywordRepository.findAllActiveKeywords();
-            lastCacheUpdate = now;
+    @Scheduled(fixedDelayString = "${moderation.keywords.refresh-interval-ms:60000}",
+               initialDelayString = "${moderation.keywords.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        refreshIfIdle();
+    }
+    
+    private void triggerBackgroundRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            refresher.execute(this::runRefresh);
+        }
+    }
+    
+    private void refreshIfIdle() {
+        if (refreshing.compareAndSet(false, true)) {
+            runRefresh();
+        }
+        // else: another reload is already in flight
+    }
+    
+    private void runRefresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot; next tick will retry
+            System.err.println("Failed to refresh prohibited keyword cache: " + e.getMessage());
+        } finally {
+            refreshing.set(false);
         }
-        
-        return cachedKeywords;
     }
     
     /**
-     * Manually refresh cache (call after admin adds/removes keywords)
+     * Manually refresh cache (call after admin adds/removes keywords).
+     * Runs synchronously so the change is visible as soon as this returns.
+     * The new snapshot is built off to the side and published in one swap,
+     * so readers see either the old keyword set or the new one, never a mix.
      */
     public void refreshCache() {
-        cachedKeywords = prohibitedKeywordRepository.findAllActiveKeywords();
-        lastCacheUpdate = System.currentTimeMillis();
+        reload();
+    }
+    
+    private KeywordSnapshot reload() {
+        synchronized (loadLock) {
+            List<ProhibitedKeyword> active = prohibitedKeywordRepository.findByIsActiveTrue();
+            Set<String> content = contentOf(active);
+            KeywordSnapshot current = snapshot.get();
+            KeywordSnapshot fresh;
+            if (current.version() != 0 && current.content().equals(content)) {
+                // Nothing changed: keep the matchers and the version (cached verdicts stay valid),
+                // only restart the expiry clock
+                fresh = new KeywordSnapshot(current.all(), current.byCategory(), current.content(),
+                    System.currentTimeMillis(), current.version());
+            } else {
+                fresh = build(active, content, version.incrementAndGet());
+            }
+            snapshot.set(fresh);
+            return fresh;
+        }
+    }
+    
+    private static Set<String> contentOf(List<ProhibitedKeyword> active) {
+        Set<String> content = new HashSet<>();
+        for (ProhibitedKeyword keyword : active) {
+            String category = keyword.getCategory() == null ? "" : keyword.getCategory().toLowerCase();
+            content.add(category + "\u0000" + keyword.getKeyword());
+        }
+        return Set.copyOf(content);
+    }
+    
+    private KeywordSnapshot build(List<ProhibitedKeyword> active, Set<String> content, long newVersion) {
+        List<String> all = new ArrayList<>();
+        Map<String, List<String>> grouped = new HashMap<>();
+        for (ProhibitedKeyword keyword : active) {
+            all.add(keyword.getKeyword());
+            if (keyword.getCategory() != null) {
+                grouped.computeIfAbsent(keyword.getCategory().toLowerCase(), c -> new ArrayList<>())
+                    .add(keyword.getKeyword());
+            }
+        }
+        
+        Map<String, KeywordAutomaton> byCategory = new HashMap<>();
+        grouped.forEach((category, keywords) -> byCategory.put(category, KeywordAutomaton.compile(keywords)));
+        
+        return new KeywordSnapshot(KeywordAutomaton.compile(all), Map.copyOf(byCategory), content,
+            System.currentTimeMillis(), newVersion);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
     }
 }
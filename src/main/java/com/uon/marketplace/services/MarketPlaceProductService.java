@@ -6,12 +6,25 @@ import com.uon.marketplace.entities.MarketPlaceProduct;
 import com.uon.marketplace.entities.ProductImage;
 import com.uon.marketplace.repositories.MarketPlaceProductRepository;
 import com.uon.marketplace.repositories.ProductImageRepository;
+import com.uon.marketplace.utils.TransactionHooks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -28,18 +41,36 @@ public class MarketPlaceProductService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ProductModerationWorker moderationWorker;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacetService facetService;
+
+    @Autowired
+    private ProductDetailCache detailCache;
+
+    // When true, createProduct only runs cheap checks inline and moderates the text in the background
+    @Value("${moderation.async.enabled:false}")
+    private boolean asyncModeration;
+
     public List<MarketPlaceProduct> getAllProducts() {
         return productRepository.findAll();
     }
 
     public Optional<MarketPlaceProduct> getProductById(Long id) {
-        return productRepository.findById(id);
+        return detailCache.getProduct(id);
     }
 
     @Transactional
     public MarketPlaceProduct createProduct(MarketPlaceProduct request) {
-        // Moderate the product before creating
-        ModerationResult moderationResult = moderationService.moderateProduct(request);
+        // Moderate the product before creating (async mode: banned category only, text checks come later)
+        ModerationResult moderationResult = asyncModeration
+                ? moderationService.moderateProductInline(request)
+                : moderationService.moderateProduct(request);
         
         MarketPlaceProduct product = new MarketPlaceProduct();
         product.setSellerId(request.getSellerId());
@@ -80,6 +111,11 @@ public class MarketPlaceProductService {
                         true
                 );
             } catch (Exception ignored) {}
+        } else if (asyncModeration) {
+            // Held back until the background moderation publishes it with the requested status
+            product.setStatus("pending_review");
+            product.setRequestedStatus(request.getStatus());
+            product.setFlagged(false);
         } else {
             // Approved
             product.setStatus(request.getStatus());
@@ -91,7 +127,28 @@ public class MarketPlaceProductService {
             product.setProductImageUrl(request.getProductImageUrl());
         }
         
-        return productRepository.save(product);
+        MarketPlaceProduct saved = productRepository.save(product);
+        if (asyncModeration) {
+            // Hand the listing to the moderation workers once the insert is visible to them
+            TransactionHooks.afterCommit(() -> moderationWorker.submit(saved.getProductId()));
+        }
+        productChanged(saved);
+        return saved;
+    }
+    
+    /**
+     * Bring the detail cache, search index and facet counts in step with a changed listing.
+     * The cache entry is dropped now and again after commit, in case a concurrent read
+     * re-cached the old row in between. Public for writers that bypass save (bulk or
+     * conditional updates).
+     */
+    public void productChanged(MarketPlaceProduct product) {
+        detailCache.invalidate(product.getProductId());
+        TransactionHooks.afterCommit(() -> {
+            detailCache.invalidate(product.getProductId());
+            searchIndex.index(product);
+            facetService.update(product);
+        });
     }
     
     @Transactional
@@ -120,14 +177,37 @@ public class MarketPlaceProductService {
                 productRepository.save(product);
             });
         }
+        detailCache.invalidate(productId);
+        TransactionHooks.afterCommit(() -> detailCache.invalidate(productId));
     }
     
     public List<ProductImage> getProductImages(Long productId) {
-        return productImageRepository.findByProductIdOrderByDisplayOrderAsc(productId);
+        return detailCache.getImages(productId);
+    }
+
+    /**
+     * Images for many products at once, grouped by product id in display order.
+     * Ids are queried in chunks to stay under SQL Server's 2100 parameter limit.
+     */
+    public Map<Long, List<ProductImage>> getProductImagesByProductIds(Collection<Long> productIds) {
+        Map<Long, List<ProductImage>> byProduct = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return byProduct;
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        for (int from = 0; from < ids.size(); from += IMAGE_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IMAGE_BATCH_SIZE, ids.size()));
+            for (ProductImage image : productImageRepository.findByProductIdInOrderByProductIdAscDisplayOrderAsc(chunk)) {
+                byProduct.computeIfAbsent(image.getProductId(), id -> new ArrayList<>()).add(image);
+            }
+        }
+        return byProduct;
     }
 
     public void deleteImageByUrl(String imageUrl) {
         productImageRepository.deleteByImageUrl(imageUrl);
+        // The owning product is not known here
+        detailCache.invalidateAll();
     }
 
    public MarketPlaceProduct updateProductPrice(Long productId, java.math.BigDecimal newPrice) {
@@ -135,7 +215,9 @@ public class MarketPlaceProductService {
                 .map(product -> {
                     product.setPrice(newPrice);
                     product.setLastUpdate(LocalDateTime.now());
-                    return productRepository.save(product);
+                    MarketPlaceProduct saved = productRepository.save(product);
+                    productChanged(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Product not found"));
     }
@@ -144,7 +226,9 @@ public class MarketPlaceProductService {
                 .map(product -> {
                     product.setStatus(newStatus);
                     product.setLastUpdate(LocalDateTime.now());
-                    return productRepository.save(product);
+                    MarketPlaceProduct saved = productRepository.save(product);
+                    productChanged(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Product not found"));
     }
@@ -152,6 +236,12 @@ public class MarketPlaceProductService {
 
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        detailCache.invalidate(id);
+        TransactionHooks.afterCommit(() -> {
+            detailCache.invalidate(id);
+            searchIndex.remove(id);
+            facetService.remove(id);
+        });
     }
 
     public MarketPlaceProduct markProductSold(Long productId, Long buyerId, String buyerName) {
@@ -161,7 +251,9 @@ public class MarketPlaceProductService {
                     product.setBuyerName(buyerName);
                     product.setStatus("Sold");
                     product.setLastUpdate(LocalDateTime.now());
-                    return productRepository.save(product);
+                    MarketPlaceProduct saved = productRepository.save(product);
+                    productChanged(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Product not found"));
     }
@@ -177,6 +269,163 @@ public class MarketPlaceProductService {
         return productRepository.findByStatus("Available");
     }
 
+    // ---- Catalogue browsing (keyset pagination) ----
+
+    // Max ids per product_images IN (...) query
+    private static final int IMAGE_BATCH_SIZE = 1000;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final List<String> BROWSE_SORTS = List.of("newest", "price_asc", "price_desc");
+
+    /**
+     * One page of listings plus the cursor for the next page (null on the last page)
+     */
+    public record ProductPage(List<MarketPlaceProduct> products, String nextCursor) {}
+
+    /**
+     * Keyset-paginated browse over available listings.
+     * Each page seeks directly past the last row of the previous page (sort key, then product id
+     * as tie-breaker) instead of using OFFSET, and no total count is computed, so a deep page
+     * costs the same as the first one.
+     *
+     * @param sort newest (default), price_asc or price_desc
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public ProductPage browseAvailableProducts(String category, String condition, BigDecimal minPrice,
+                                               BigDecimal maxPrice, String sort, String cursor, Integer size) {
+        String sortKey = (sort == null || sort.isBlank()) ? "newest" : sort.trim().toLowerCase();
+        if (!BROWSE_SORTS.contains(sortKey)) {
+            throw new RuntimeException("Unsupported sort: " + sort + " (use one of " + BROWSE_SORTS + ")");
+        }
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<MarketPlaceProduct> spec = (root, query, cb) -> cb.equal(root.get("status"), "Available");
+        if (category != null && !category.isBlank()) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("category"), category));
+        }
+        if (condition != null && !condition.isBlank()) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("condition"), condition));
+        }
+        if (minPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(afterCursor(sortKey, cursor));
+        }
+
+        Sort order = switch (sortKey) {
+            case "price_asc" -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("productId"));
+            case "price_desc" -> Sort.by(Sort.Order.desc("price"), Sort.Order.desc("productId"));
+            default -> Sort.by(Sort.Order.desc("postedDate"), Sort.Order.desc("productId"));
+        };
+
+        // Fetch one extra row to know whether another page exists
+        List<MarketPlaceProduct> rows = productRepository.findBy(spec, q -> q.sortBy(order).limit(limit + 1).all());
+        if (rows.size() <= limit) {
+            return new ProductPage(rows, null);
+        }
+        List<MarketPlaceProduct> page = new ArrayList<>(rows.subList(0, limit));
+        return new ProductPage(page, encodeCursor(sortKey, page.get(page.size() - 1)));
+    }
+
+    private static String encodeCursor(String sortKey, MarketPlaceProduct last) {
+        String value = "newest".equals(sortKey) ? last.getPostedDate().toString() : last.getPrice().toPlainString();
+        String raw = sortKey + "|" + value + "|" + last.getProductId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rows strictly after the cursor position in the given sort order
+     */
+    private static Specification<MarketPlaceProduct> afterCursor(String sortKey, String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sortKey)) {
+            throw new RuntimeException("Invalid cursor for sort " + sortKey);
+        }
+        try {
+            Long lastId = Long.valueOf(parts[2]);
+            if ("newest".equals(sortKey)) {
+                LocalDateTime lastPosted = LocalDateTime.parse(parts[1]);
+                return (root, query, cb) -> cb.or(
+                        cb.lessThan(root.get("postedDate"), lastPosted),
+                        cb.and(cb.equal(root.get("postedDate"), lastPosted), cb.lessThan(root.get("productId"), lastId)));
+            }
+            BigDecimal lastPrice = new BigDecimal(parts[1]);
+            if ("price_asc".equals(sortKey)) {
+                return (root, query, cb) -> cb.or(
+                        cb.greaterThan(root.get("price"), lastPrice),
+                        cb.and(cb.equal(root.get("price"), lastPrice), cb.greaterThan(root.get("productId"), lastId)));
+            }
+            return (root, query, cb) -> cb.or(
+                    cb.lessThan(root.get("price"), lastPrice),
+                    cb.and(cb.equal(root.get("price"), lastPrice), cb.lessThan(root.get("productId"), lastId)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Category / condition / price bucket counts of available listings for a filter set,
+     * served from the in-memory counts in ProductFacetService
+     */
+    public ProductFacetService.FacetCounts getFacetCounts(String category, String condition, String priceBucket) {
+        return facetService.getCounts(category, condition, priceBucket);
+    }
+
+    /**
+     * Size and load state of the search index and facet counts
+     */
+    public Map<String, Object> getSearchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("index", searchIndex.getStats());
+        stats.put("facets", facetService.getStats());
+        return stats;
+    }
+
+    public Map<String, Object> getDetailCacheStats() {
+        return detailCache.getStats();
+    }
+
+    // ---- Full-text search ----
+
+    /**
+     * One page of search results in rank order, with the total match count and facet counts
+     */
+    public record SearchPage(List<MarketPlaceProduct> products, long total, Map<String, Map<String, Long>> facets) {}
+
+    /**
+     * Ranked full-text search over available listings (see ProductSearchIndex).
+     * Matches are loaded with one findAllById; rows that stopped being available since
+     * they were indexed are dropped.
+     */
+    public SearchPage searchAvailableProducts(String query, String category, String condition,
+                                              BigDecimal minPrice, BigDecimal maxPrice, Integer page, Integer size) {
+        ProductSearchIndex.SearchResult result = searchIndex.search(query, category, condition, minPrice, maxPrice, page, size);
+        List<Long> ids = result.hits().stream().map(ProductSearchIndex.Hit::productId).toList();
+        Map<Long, MarketPlaceProduct> byId = new HashMap<>();
+        for (MarketPlaceProduct product : productRepository.findAllById(ids)) {
+            byId.put(product.getProductId(), product);
+        }
+        List<MarketPlaceProduct> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MarketPlaceProduct product = byId.get(id);
+            if (product != null && "Available".equals(product.getStatus())) {
+                products.add(product);
+            }
+        }
+        return new SearchPage(products, result.total(), result.facets());
+    }
+
     @Transactional
     public MarketPlaceProduct updateProduct(Long productId, com.uon.marketplace.dto.requests.UpdateProductRequest request) {
         MarketPlaceProduct product = productRepository.findById(productId)
@@ -242,6 +491,7 @@ public class MarketPlaceProductService {
         
         product.setLastUpdate(LocalDateTime.now());
         MarketPlaceProduct savedProduct = productRepository.save(product);
+        productChanged(savedProduct);
         
         // Update images if provided
         if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
@@ -253,7 +503,9 @@ public class MarketPlaceProductService {
 
     // Direct save method for internal use (e.g., updating report count, flags)
     public MarketPlaceProduct saveProductDirectly(MarketPlaceProduct product) {
-        return productRepository.save(product);
+        MarketPlaceProduct saved = productRepository.save(product);
+        productChanged(saved);
+        return saved;
     }
     // check moderation result for product request
     public ModerationResult checkModerationResult(MarketPlaceProductRequest product) {
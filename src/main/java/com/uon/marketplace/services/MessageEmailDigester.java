@@ -0,0 +1,204 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.entities.Message;
+import com.uon.marketplace.repositories.MessageRepository;
+import com.uon.marketplace.services.UserSummaryCache.UserSummary;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces new-message notification emails into one digest per conversation.
+ *
+ * MessageService records every sent message after commit. The first message of a burst
+ * opens a window for its (receiver, sender, product) conversation; later messages only
+ * extend the range of message ids. When the window closes, the messages in that range
+ * that are still unread are sent as one email. If the receiver already read them all
+ * in the app, no email is sent.
+ *
+ * The buffer is in memory: pending digests are flushed on shutdown, but are lost if the
+ * process dies.
+ */
+@Service
+public class MessageEmailDigester {
+
+    private record Conversation(Long receiverId, Long senderId, Long productId) {}
+
+    // Range of message ids waiting for the digest; it only widens while buffered
+    private record Pending(Long firstMessageId, Long lastMessageId, LocalDateTime openedAt) {}
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Value("${messages.email-digest.window-seconds:120}")
+    private long windowSeconds;
+
+    @Value("${messages.email-digest.max-messages:10}")
+    private int maxMessages;
+
+    private final Map<Conversation, Pending> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder digestsQueued = new LongAdder();
+    private final LongAdder messagesEmailed = new LongAdder();
+    private final LongAdder skippedAsRead = new LongAdder();
+
+    /**
+     * Note a sent message; call after the message is committed
+     */
+    public void record(Message message) {
+        if (message == null || message.getMessageId() == null) {
+            return;
+        }
+        recorded.increment();
+        Conversation key = new Conversation(message.getReceiverId(), message.getSenderId(), message.getProductId());
+        pending.merge(key, new Pending(message.getMessageId(), message.getMessageId(), LocalDateTime.now()),
+            // Commits (and so record() calls) can arrive out of id order: widen the range both ways
+            (current, added) -> new Pending(Math.min(current.firstMessageId(), added.firstMessageId()),
+                Math.max(current.lastMessageId(), added.lastMessageId()), current.openedAt()));
+    }
+
+    @Scheduled(fixedDelayString = "${messages.email-digest.flush-interval-ms:10000}")
+    public void flushDue() {
+        try {
+            flush(LocalDateTime.now().minusSeconds(windowSeconds));
+        } catch (Exception e) {
+            System.err.println("Message digest flush failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        try {
+            flush(null);
+        } catch (Exception e) {
+            System.err.println("Message digest flush on shutdown failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buffered", pending.size());
+        stats.put("windowSeconds", windowSeconds);
+        stats.put("messagesRecorded", recorded.sum());
+        stats.put("digestsQueued", digestsQueued.sum());
+        stats.put("messagesEmailed", messagesEmailed.sum());
+        stats.put("skippedAlreadyRead", skippedAsRead.sum());
+        return stats;
+    }
+
+    /**
+     * Send digests for conversations whose window opened at or before the cutoff (all when null)
+     */
+    private void flush(LocalDateTime cutoff) {
+        Map<Conversation, Pending> due = new LinkedHashMap<>();
+        for (Map.Entry<Conversation, Pending> entry : pending.entrySet()) {
+            Pending value = entry.getValue();
+            if (cutoff == null || !value.openedAt().isAfter(cutoff)) {
+                // Only take the exact value we saw; a message recorded meanwhile stays for next run
+                if (pending.remove(entry.getKey(), value)) {
+                    due.put(entry.getKey(), value);
+                }
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        for (Conversation conversation : due.keySet()) {
+            userIds.add(conversation.receiverId());
+            userIds.add(conversation.senderId());
+        }
+        Map<Long, UserSummary> users = userSummaryCache.getAll(userIds);
+
+        for (Map.Entry<Conversation, Pending> entry : due.entrySet()) {
+            Conversation conversation = entry.getKey();
+            Pending range = entry.getValue();
+            try {
+                List<Message> unread = messageRepository.findUnreadInRange(conversation.receiverId(),
+                    conversation.senderId(), conversation.productId(), range.firstMessageId(), range.lastMessageId());
+                if (unread.isEmpty()) {
+                    skippedAsRead.increment();
+                    continue;
+                }
+                UserSummary receiver = users.get(conversation.receiverId());
+                UserSummary sender = users.get(conversation.senderId());
+                MarketPlaceProduct product = productDetailCache.getProduct(conversation.productId()).orElse(null);
+                if (receiver == null || sender == null || product == null) {
+                    continue;
+                }
+                queueDigest(sender, receiver, product, unread);
+            } catch (Exception e) {
+                // Log error but keep flushing the other conversations
+                System.err.println("Failed to send message notification email: " + e.getMessage());
+            }
+        }
+    }
+
+    private void queueDigest(UserSummary sender, UserSummary receiver, MarketPlaceProduct product, List<Message> unread) {
+        String senderName = sender.hasProfile() ? sender.displayName() : sender.email();
+        String subject;
+        String body;
+        if (unread.size() == 1) {
+            subject = "New message about \"" + product.getProductName() + "\"";
+            body = String.format(
+                "Hi,\n\n" +
+                "You have received a new message from %s regarding the product \"%s\".\n\n" +
+                "Message:\n%s\n\n" +
+                "Log in to your UON Marketplace account to view and reply to this message.\n\n" +
+                "— UON Marketplace",
+                senderName,
+                product.getProductName(),
+                unread.get(0).getContent()
+            );
+        } else {
+            List<Message> shown = unread.size() > maxMessages ? unread.subList(unread.size() - maxMessages, unread.size()) : unread;
+            List<String> lines = new ArrayList<>(shown.size());
+            for (Message message : shown) {
+                lines.add(message.getContent());
+            }
+            String more = unread.size() > shown.size()
+                ? "(" + (unread.size() - shown.size()) + " earlier messages not shown)\n\n"
+                : "";
+            subject = unread.size() + " new messages about \"" + product.getProductName() + "\"";
+            body = String.format(
+                "Hi,\n\n" +
+                "You have received %d new messages from %s regarding the product \"%s\".\n\n" +
+                "%sMessages:\n%s\n\n" +
+                "Log in to your UON Marketplace account to view and reply to these messages.\n\n" +
+                "— UON Marketplace",
+                unread.size(),
+                senderName,
+                product.getProductName(),
+                more,
+                String.join("\n---\n", lines)
+            );
+        }
+        emailOutboxService.enqueue(receiver.email(), subject, body);
+        digestsQueued.increment();
+        messagesEmailed.add(unread.size());
+    }
+}
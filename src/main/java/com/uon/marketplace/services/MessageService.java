@@ -2,60 +2,82 @@ package com.uon.marketplace.services;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.uon.marketplace.dto.requests.SendMessageRequest;
+import com.uon.marketplace.dto.responses.ConversationHistoryResponse;
 import com.uon.marketplace.dto.responses.ConversationResponse;
 import com.uon.marketplace.dto.responses.MessageResponse;
-import com.uon.marketplace.entities.AppUser;
+import com.uon.marketplace.entities.ConversationSummary;
 import com.uon.marketplace.entities.MarketPlaceProduct;
 import com.uon.marketplace.entities.Message;
-import com.uon.marketplace.entities.UserProfile;
-import com.uon.marketplace.repositories.AppUserRepository;
+import com.uon.marketplace.repositories.ConversationSummaryRepository;
 import com.uon.marketplace.repositories.MarketPlaceProductRepository;
 import com.uon.marketplace.repositories.MessageRepository;
-import com.uon.marketplace.repositories.UserProfileRepository;
+import com.uon.marketplace.services.UserSummaryCache.UserSummary;
+import com.uon.marketplace.utils.TransactionHooks;
 
 @Service
 public class MessageService {
     
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 30;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
+    // Event names on the user's stream (see RealtimeEventService)
+    private static final String EVENT_MESSAGE = "message";
+    private static final String EVENT_MESSAGES_READ = "messages-read";
+    
     @Autowired
     private MessageRepository messageRepository;
     
     @Autowired
-    private AppUserRepository appUserRepository;
+    private UserSummaryCache userSummaryCache;
+    
+    @Autowired
+    private MarketPlaceProductRepository productRepository;
+
+    @Autowired
+    private ProductDetailCache productDetailCache;
     
     @Autowired
-    private UserProfileRepository userProfileRepository;
+    private MessageEmailDigester messageEmailDigester;
     
     @Autowired
-    private MarketPlaceProductRepository productRepository;
+    private ConversationSummaryService conversationSummaryService;
     
     @Autowired
-    private EmailService emailService;
+    private ConversationSummaryRepository conversationSummaryRepository;
+    
+    @Autowired
+    private RealtimeEventService realtimeEventService;
+    
+    @Autowired
+    private UnreadCounterService unreadCounterService;
     
     /**
-     * Send a new message and notify receiver via email
+     * Send a new message and notify receiver via email (see MessageEmailDigester)
      */
     @Transactional
     public MessageResponse sendMessage(Long senderId, SendMessageRequest request) {
         // Validate sender exists
-        AppUser sender = appUserRepository.findById(senderId)
+        userSummaryCache.get(senderId)
             .orElseThrow(() -> new RuntimeException("Sender not found"));
         
         // Validate receiver exists
-        AppUser receiver = appUserRepository.findById(request.getReceiverId())
+        userSummaryCache.get(request.getReceiverId())
             .orElseThrow(() -> new RuntimeException("Receiver not found"));
         
         // Validate product exists
-        MarketPlaceProduct product = productRepository.findById(request.getProductId())
+        productDetailCache.getProduct(request.getProductId())
             .orElseThrow(() -> new RuntimeException("Product not found"));
         
         // Create and save message
@@ -68,77 +90,67 @@ public class MessageService {
         message.setIsRead(false);
         
         message = messageRepository.save(message);
+        conversationSummaryService.messageSent(message);
+        
+        MessageResponse response = convertToMessageResponse(message);
+        
+        // Email the receiver (bursts in one conversation are coalesced into a single digest)
+        // and push the message to both users' open streams
+        Message saved = message;
+        unreadCounterService.change(UnreadCounterService.Kind.MESSAGES, saved.getReceiverId(), 1);
+        TransactionHooks.afterCommit(() -> {
+            messageEmailDigester.record(saved);
+            realtimeEventService.publish(saved.getReceiverId(), EVENT_MESSAGE, response);
+            realtimeEventService.publish(saved.getSenderId(), EVENT_MESSAGE, response);
+        });
         
-        // Send email notification to receiver
-        sendMessageNotification(sender, receiver, product, message);
-        
-        return convertToMessageResponse(message);
+        return response;
     }
     
     /**
-     * Get all conversations for a user (inbox view)
+     * Get all conversations for a user (inbox view), newest first
      */
     public List<ConversationResponse> getConversations(Long userId) {
-        List<Message> latestMessages = messageRepository.findLatestConversations(userId);
+        // One row per conversation with its latest message and this user's unread count
+        List<Object[]> rows = conversationSummaryRepository.findInbox(userId);
         
-        if (latestMessages.isEmpty()) {
+        if (rows.isEmpty()) {
             return new ArrayList<>();
         }
         
         // Batch fetch all related entities to avoid N+1 queries
-        List<Long> allUserIds = latestMessages.stream()
-            .flatMap(msg -> List.of(msg.getSenderId(), msg.getReceiverId()).stream())
-            .distinct()
-            .collect(Collectors.toList());
-        
-        List<Long> allProductIds = latestMessages.stream()
-            .map(Message::getProductId)
-            .distinct()
-            .collect(Collectors.toList());
-        
-        // Fetch all users and profiles at once
-        Map<Long, AppUser> userMap = appUserRepository.findAllById(allUserIds).stream()
-            .collect(Collectors.toMap(AppUser::getUserId, u -> u));
+        List<Long> allUserIds = new ArrayList<>();
+        List<Long> allProductIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            ConversationSummary conversation = (ConversationSummary) row[0];
+            allUserIds.add(conversation.getOtherUserId(userId));
+            allProductIds.add(conversation.getProductId());
+        }
         
-        Map<Long, UserProfile> profileMap = userProfileRepository.findByUserIdIn(allUserIds).stream()
-            .collect(Collectors.toMap(UserProfile::getUserId, p -> p));
+        // Fetch all users (account + profile) at once
+        Map<Long, UserSummary> userMap = userSummaryCache.getAll(allUserIds);
         
         // Fetch all products at once
-        Map<Long, MarketPlaceProduct> productMap = productRepository.findAllById(allProductIds).stream()
+        Map<Long, MarketPlaceProduct> productMap = productRepository.findAllById(
+                allProductIds.stream().distinct().collect(Collectors.toList())).stream()
             .collect(Collectors.toMap(MarketPlaceProduct::getProductId, p -> p));
         
-        // Fetch ALL unread messages for this user in one query
-        List<Message> allUnreadMessages = messageRepository.findByReceiverIdAndIsReadFalseOrderBySentAtDesc(userId);
-        
-        // Group unread messages by (otherUser, product) for quick lookup
-        Map<String, Long> unreadCountMap = new HashMap<>();
-        for (Message unreadMsg : allUnreadMessages) {
-            Long otherUserId = unreadMsg.getSenderId();
-            String key = otherUserId + "_" + unreadMsg.getProductId();
-            unreadCountMap.put(key, unreadCountMap.getOrDefault(key, 0L) + 1);
+        List<ConversationResponse> conversations = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ConversationSummary conversation = (ConversationSummary) row[0];
+            Message lastMessage = (Message) row[1];
+            conversations.add(buildConversationResponseOptimized(
+                lastMessage, conversation.getOtherUserId(userId), userMap, productMap,
+                conversation.getUnreadFor(userId)));
         }
         
-        // Group messages by (otherUser, product) combination
-        Map<String, ConversationResponse> conversationMap = new HashMap<>();
-        
-        for (Message msg : latestMessages) {
-            Long otherUserId = msg.getSenderId().equals(userId) ? msg.getReceiverId() : msg.getSenderId();
-            String key = otherUserId + "_" + msg.getProductId();
-            
-            if (!conversationMap.containsKey(key)) {
-                Long unreadCount = unreadCountMap.getOrDefault(key, 0L);
-                ConversationResponse conv = buildConversationResponseOptimized(
-                    userId, msg, otherUserId, userMap, profileMap, productMap, unreadCount);
-                conversationMap.put(key, conv);
-            }
-        }
-        
-        return new ArrayList<>(conversationMap.values());
+        return conversations;
     }
     
     /**
      * Get all messages in a specific conversation
      */
+    @Transactional
     public List<MessageResponse> getConversationMessages(Long userId, Long otherUserId, Long productId) {
         List<Message> messages = messageRepository.findConversation(userId, otherUserId, productId);
         
@@ -147,12 +159,7 @@ public class MessageService {
         }
         
         // Mark messages as read if current user is the receiver
-        messages.forEach(msg -> {
-            if (msg.getReceiverId().equals(userId) && !msg.getIsRead()) {
-                msg.markAsRead();
-            }
-        });
-        messageRepository.saveAll(messages);
+        markLoadedRead(userId, otherUserId, productId, messages);
         
         // Batch fetch all related entities
         List<Long> allUserIds = messages.stream()
@@ -160,28 +167,77 @@ public class MessageService {
             .distinct()
             .collect(Collectors.toList());
         
-        Map<Long, AppUser> userMap = appUserRepository.findAllById(allUserIds).stream()
-            .collect(Collectors.toMap(AppUser::getUserId, u -> u));
+        Map<Long, UserSummary> userMap = userSummaryCache.getAll(allUserIds);
         
-        Map<Long, UserProfile> profileMap = userProfileRepository.findByUserIdIn(allUserIds).stream()
-            .collect(Collectors.toMap(UserProfile::getUserId, p -> p));
-        
-        MarketPlaceProduct product = productRepository.findById(productId).orElse(null);
+        MarketPlaceProduct product = productDetailCache.getProduct(productId).orElse(null);
         
         return messages.stream()
-            .map(msg -> convertToMessageResponseOptimized(msg, userMap, profileMap, product))
+            .map(msg -> convertToMessageResponseOptimized(msg, userMap, product))
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * One page of a conversation's history: the latest messages, or those older than the
+     * message id given as cursor. Messages on the page are marked read for the receiver.
+     */
+    @Transactional
+    public ConversationHistoryResponse getConversationHistory(Long userId, Long otherUserId, Long productId,
+                                                              Long before, Integer size) {
+        int limit = size == null ? DEFAULT_HISTORY_PAGE_SIZE : Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // One extra row tells whether older messages exist
+        Limit fetch = Limit.of(limit + 1);
+        List<Message> rows;
+        if (before == null) {
+            rows = messageRepository.findConversationLatest(userId, otherUserId, productId, fetch);
+        } else {
+            Message cursor = messageRepository.findById(before)
+                .filter(msg -> msg.getProductId().equals(productId)
+                    && ((msg.getSenderId().equals(userId) && msg.getReceiverId().equals(otherUserId))
+                        || (msg.getSenderId().equals(otherUserId) && msg.getReceiverId().equals(userId))))
+                .orElseThrow(() -> new RuntimeException("Invalid cursor"));
+            rows = messageRepository.findConversationBefore(userId, otherUserId, productId,
+                cursor.getSentAt(), cursor.getMessageId(), fetch);
+        }
+        
+        boolean hasMore = rows.size() > limit;
+        List<Message> page = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+        // Fetched newest first; returned in chat order
+        Collections.reverse(page);
+        
+        // Mark messages as read if current user is the receiver
+        markLoadedRead(userId, otherUserId, productId, page);
+        
+        Map<Long, UserSummary> userMap = userSummaryCache.getAll(List.of(userId, otherUserId));
+        MarketPlaceProduct product = productDetailCache.getProduct(productId).orElse(null);
+        List<MessageResponse> messages = page.stream()
+            .map(msg -> convertToMessageResponseOptimized(msg, userMap, product))
             .collect(Collectors.toList());
+        
+        Long nextBefore = hasMore ? page.get(0).getMessageId() : null;
+        return new ConversationHistoryResponse(messages, nextBefore, hasMore);
+    }
+    
+    /**
+     * Mark the user's unread messages in a conversation read, up to and including a message id
+     * (all of them when null), with one bulk UPDATE
+     * @return number of messages marked read
+     */
+    @Transactional
+    public int markConversationRead(Long userId, Long otherUserId, Long productId, Long upToMessageId) {
+        return markReadUpTo(userId, otherUserId, productId,
+            upToMessageId != null ? upToMessageId : Long.MAX_VALUE, LocalDateTime.now());
     }
     
     /**
      * Get count of unread messages for a user
      */
     public Long getUnreadCount(Long userId) {
-        return messageRepository.countUnreadMessages(userId);
+        return unreadCounterService.get(UnreadCounterService.Kind.MESSAGES, userId);
     }
     
     /**
-     * Mark a specific message as read
+     * Mark a specific message as read. The conditional UPDATE only changes a still-unread
+     * message, so concurrent calls count it off the unread totals once.
      */
     @Transactional
     public void markAsRead(Long messageId, Long userId) {
@@ -193,44 +249,58 @@ public class MessageService {
             throw new RuntimeException("Unauthorized: Only receiver can mark message as read");
         }
         
-        if (!message.getIsRead()) {
-            message.markAsRead();
-            messageRepository.save(message);
-        }
+        int updated = messageRepository.markRead(messageId, userId, LocalDateTime.now());
+        conversationSummaryService.messagesRead(userId, message.getSenderId(), message.getProductId(), updated);
+        afterRead(userId, message.getSenderId(), message.getProductId(), updated);
     }
     
     /**
-     * Send email notification when a new message is received
+     * Mark the user's unread messages in a conversation read up to the newest of the loaded ones,
+     * then reflect that on the loaded messages (detached by the bulk UPDATE) for the response
      */
-    private void sendMessageNotification(AppUser sender, AppUser receiver, 
-                                        MarketPlaceProduct product, Message message) {
-        try {
-            UserProfile senderProfile = userProfileRepository.findByUserId(sender.getUserId())
-                .orElse(null);
-            
-            String senderName = senderProfile != null 
-                ? senderProfile.getFirstName() + " " + senderProfile.getLastName()
-                : sender.getEmail();
-            
-            String subject = "New message about \"" + product.getProductName() + "\"";
-            String body = String.format(
-                "Hi,\n\n" +
-                "You have received a new message from %s regarding the product \"%s\".\n\n" +
-                "Message:\n%s\n\n" +
-                "Log in to your UON Marketplace account to view and reply to this message.\n\n" +
-                "— UON Marketplace",
-                senderName,
-                product.getProductName(),
-                message.getContent()
-            );
-            
-            emailService.send(receiver.getEmail(), subject, body);
-        } catch (Exception e) {
-            // Log error but don't fail the message send operation
-            System.err.println("Failed to send message notification email: " + e.getMessage());
+    private void markLoadedRead(Long userId, Long otherUserId, Long productId, List<Message> loaded) {
+        List<Message> unread = loaded.stream()
+            .filter(msg -> msg.getReceiverId().equals(userId) && !msg.getIsRead())
+            .collect(Collectors.toList());
+        if (unread.isEmpty()) {
+            return;
         }
+        LocalDateTime now = LocalDateTime.now();
+        long highWater = loaded.stream().mapToLong(Message::getMessageId).max().getAsLong();
+        markReadUpTo(userId, otherUserId, productId, highWater, now);
+        for (Message msg : unread) {
+            msg.setIsRead(true);
+            msg.setReadAt(now);
+        }
+    }
+    
+    private int markReadUpTo(Long userId, Long otherUserId, Long productId, long upToMessageId, LocalDateTime now) {
+        int updated = messageRepository.markConversationRead(userId, otherUserId, productId, upToMessageId, now);
+        conversationSummaryService.messagesRead(userId, otherUserId, productId, updated);
+        afterRead(userId, otherUserId, productId, updated);
+        return updated;
     }
     
+    /**
+     * Once the change is committed, take the messages off the reader's unread count and tell
+     * the reader's other sessions and the sender (read receipt)
+     */
+    private void afterRead(Long readerId, Long senderId, Long productId, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("readerId", readerId);
+        event.put("senderId", senderId);
+        event.put("productId", productId);
+        event.put("count", count);
+        unreadCounterService.change(UnreadCounterService.Kind.MESSAGES, readerId, -count);
+        TransactionHooks.afterCommit(() -> {
+            realtimeEventService.publish(readerId, EVENT_MESSAGES_READ, event);
+            realtimeEventService.publish(senderId, EVENT_MESSAGES_READ, event);
+        });
+    }
+        
     /**
      * Convert Message entity to MessageResponse DTO
      */
@@ -245,24 +315,21 @@ public class MessageService {
         response.setIsRead(message.getIsRead());
         response.setReadAt(message.getReadAt());
         
-        // Fetch sender details
-        appUserRepository.findById(message.getSenderId()).ifPresent(sender -> {
-            response.setSenderEmail(sender.getEmail());
-            userProfileRepository.findByUserId(sender.getUserId()).ifPresent(profile -> {
-                response.setSenderName(profile.getFirstName() + " " + profile.getLastName());
-            });
-        });
-        
-        // Fetch receiver details
-        appUserRepository.findById(message.getReceiverId()).ifPresent(receiver -> {
-            response.setReceiverEmail(receiver.getEmail());
-            userProfileRepository.findByUserId(receiver.getUserId()).ifPresent(profile -> {
-                response.setReceiverName(profile.getFirstName() + " " + profile.getLastName());
-            });
-        });
+        // Fetch sender and receiver details
+        Map<Long, UserSummary> users = userSummaryCache.getAll(List.of(message.getSenderId(), message.getReceiverId()));
+        UserSummary sender = users.get(message.getSenderId());
+        if (sender != null) {
+            response.setSenderEmail(sender.email());
+            response.setSenderName(sender.displayName());
+        }
+        UserSummary receiver = users.get(message.getReceiverId());
+        if (receiver != null) {
+            response.setReceiverEmail(receiver.email());
+            response.setReceiverName(receiver.displayName());
+        }
         
         // Fetch product details
-        productRepository.findById(message.getProductId()).ifPresent(product -> {
+        productDetailCache.getProduct(message.getProductId()).ifPresent(product -> {
             response.setProductTitle(product.getProductName());
             response.setProductImageUrl(product.getProductImageUrl());
         });
@@ -274,8 +341,8 @@ public class MessageService {
      * Build ConversationResponse from message and other user details (optimized with cached data)
      */
     private ConversationResponse buildConversationResponseOptimized(
-            Long currentUserId, Message msg, Long otherUserId,
-            Map<Long, AppUser> userMap, Map<Long, UserProfile> profileMap,
+            Message msg, Long otherUserId,
+            Map<Long, UserSummary> userMap,
             Map<Long, MarketPlaceProduct> productMap, Long unreadCount) {
         
         ConversationResponse conv = new ConversationResponse();
@@ -285,13 +352,10 @@ public class MessageService {
         conv.setLastMessageTime(msg.getSentAt());
         
         // Get other user details from cached maps
-        AppUser otherUser = userMap.get(otherUserId);
+        UserSummary otherUser = userMap.get(otherUserId);
         if (otherUser != null) {
-            conv.setOtherUserEmail(otherUser.getEmail());
-            UserProfile profile = profileMap.get(otherUserId);
-            if (profile != null) {
-                conv.setOtherUserName(profile.getFirstName() + " " + profile.getLastName());
-            }
+            conv.setOtherUserEmail(otherUser.email());
+            conv.setOtherUserName(otherUser.displayName());
         }
         
         // Get product details from cached map
@@ -312,8 +376,7 @@ public class MessageService {
      * Convert Message entity to MessageResponse DTO (optimized with cached data)
      */
     private MessageResponse convertToMessageResponseOptimized(
-            Message message, Map<Long, AppUser> userMap,
-            Map<Long, UserProfile> profileMap, MarketPlaceProduct product) {
+            Message message, Map<Long, UserSummary> userMap, MarketPlaceProduct product) {
         
         MessageResponse response = new MessageResponse();
         response.setMessageId(message.getMessageId());
@@ -326,23 +389,17 @@ public class MessageService {
         response.setReadAt(message.getReadAt());
         
         // Fetch sender details from cached maps
-        AppUser sender = userMap.get(message.getSenderId());
+        UserSummary sender = userMap.get(message.getSenderId());
         if (sender != null) {
-            response.setSenderEmail(sender.getEmail());
-            UserProfile senderProfile = profileMap.get(sender.getUserId());
-            if (senderProfile != null) {
-                response.setSenderName(senderProfile.getFirstName() + " " + senderProfile.getLastName());
-            }
+            response.setSenderEmail(sender.email());
+            response.setSenderName(sender.displayName());
         }
         
         // Fetch receiver details from cached maps
-        AppUser receiver = userMap.get(message.getReceiverId());
+        UserSummary receiver = userMap.get(message.getReceiverId());
         if (receiver != null) {
-            response.setReceiverEmail(receiver.getEmail());
-            UserProfile receiverProfile = profileMap.get(receiver.getUserId());
-            if (receiverProfile != null) {
-                response.setReceiverName(receiverProfile.getFirstName() + " " + receiverProfile.getLastName());
-            }
+            response.setReceiverEmail(receiver.email());
+            response.setReceiverName(receiver.displayName());
         }
         
         // Set product details
@@ -0,0 +1,116 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.dto.responses.ModerationResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ordered chain of moderation checks run over one piece of text.
+ *
+ * Stages are added cheapest first. Each stage either returns a verdict, which ends
+ * the run, or null to hand the text on to the next stage; text that passes every
+ * stage is approved. The input is prepared once and shared by all stages, and every
+ * stage keeps its own call/verdict/latency counters.
+ */
+public final class ModerationPipeline {
+
+    @FunctionalInterface
+    public interface Stage {
+        /**
+         * Verdict for the input, or null to continue with the next stage
+         */
+        ModerationResult check(Input input);
+    }
+
+    /**
+     * Text and category as seen by every stage; text is never null
+     */
+    public record Input(String text, String category) {
+        static Input of(String text, String category) {
+            return new Input(text != null ? text : "", category);
+        }
+    }
+
+    private final String name;
+    private final List<StageEntry> stages = new ArrayList<>();
+
+    public ModerationPipeline(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Append a stage; call in order of increasing cost
+     */
+    public ModerationPipeline addStage(String stageName, Stage stage) {
+        stages.add(new StageEntry(stageName, stage));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ModerationResult run(String text, String category) {
+        Input input = Input.of(text, category);
+        for (StageEntry entry : stages) {
+            long started = System.nanoTime();
+            ModerationResult verdict = entry.stage.check(input);
+            entry.record(System.nanoTime() - started, verdict != null);
+            if (verdict != null) {
+                return verdict;
+            }
+        }
+        return ModerationResult.approved();
+    }
+
+    /**
+     * Per-stage counters, in stage order
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (StageEntry entry : stages) {
+            stats.put(entry.name, entry.snapshot());
+        }
+        return stats;
+    }
+
+    private static final class StageEntry {
+        private final String name;
+        private final Stage stage;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder verdicts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        StageEntry(String name, Stage stage) {
+            this.name = name;
+            this.stage = stage;
+        }
+
+        void record(long nanos, boolean decided) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (decided) {
+                verdicts.increment();
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            long count = calls.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("calls", count);
+            stats.put("verdicts", verdicts.sum());
+            stats.put("totalMicros", total / 1_000);
+            stats.put("avgMicros", count > 0 ? total / count / 1_000.0 : 0.0);
+            stats.put("maxMicros", maxNanos.get() / 1_000);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.dto.responses.ModerationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of moderation verdicts.
+ *
+ * Entries are keyed by a SHA-256 of the moderated text and category plus the versions
+ * of the keyword and profanity lists, so a list change makes every older verdict
+ * unreachable; invalidateAll() also drops them eagerly. Callers always get a copy,
+ * since ModerationResult is mutable.
+ */
+@Component
+public class ModerationResultCache {
+
+    private record Key(String pipeline, String digest, long keywordVersion, long profanityVersion) {}
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, ModerationResult> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ModerationResultCache(@Value("${moderation.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ModerationResult> eldest) {
+                if (size() > ModerationResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached verdict for this content, computing and storing it on a miss.
+     * The computation runs outside the lock; two concurrent misses on the same
+     * text both compute and the later one wins, which is harmless.
+     */
+    public ModerationResult get(String pipeline, String text, String category,
+                                long keywordVersion, long profanityVersion,
+                                Supplier<ModerationResult> compute) {
+        if (maxEntries <= 0) {
+            return compute.get();
+        }
+        Key key = new Key(pipeline, digest(text, category), keywordVersion, profanityVersion);
+        ModerationResult cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return copy(cached);
+        }
+        misses.increment();
+        ModerationResult result = compute.get();
+        synchronized (entries) {
+            entries.put(key, copy(result));
+        }
+        return result;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private static String digest(String text, String category) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update((text != null ? text : "").getBytes(StandardCharsets.UTF_8));
+            // Separator byte that cannot occur in UTF-8 keeps text/category boundaries unambiguous
+            sha.update((byte) 0xFF);
+            if (category != null) {
+                sha.update(category.getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getEncoder().encodeToString(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static ModerationResult copy(ModerationResult source) {
+        return new ModerationResult(source.isApproved(), source.isFlagged(), source.isRejected(),
+            source.getReason(), source.getSeverity(),
+            source.getDetectedKeywords() != null ? new ArrayList<>(source.getDetectedKeywords()) : null,
+            source.getRecommendedAction());
+    }
+}
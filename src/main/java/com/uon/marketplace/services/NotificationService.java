@@ -1,9 +1,8 @@
 package com.uon.marketplace.services;
 
-import com.uon.marketplace.entities.AppUser;
 import com.uon.marketplace.entities.Notification;
-import com.uon.marketplace.repositories.AppUserRepository;
 import com.uon.marketplace.repositories.NotificationRepository;
+import com.uon.marketplace.utils.TransactionHooks;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -15,18 +14,24 @@ import java.util.List;
 @Service
 public class NotificationService {
     private final NotificationRepository notificationRepository;
-    private final AppUserRepository appUserRepository;
-    private final EmailService emailService;
+    private final UserSummaryCache userSummaryCache;
+    private final EmailOutboxService emailOutboxService;
+    private final RealtimeEventService realtimeEventService;
+    private final UnreadCounterService unreadCounterService;
 
     @Value("${notifications.email.enabled:true}")
     private boolean emailEnabled;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               AppUserRepository appUserRepository,
-                               EmailService emailService) {
+                               UserSummaryCache userSummaryCache,
+                               EmailOutboxService emailOutboxService,
+                               RealtimeEventService realtimeEventService,
+                               UnreadCounterService unreadCounterService) {
         this.notificationRepository = notificationRepository;
-        this.appUserRepository = appUserRepository;
-        this.emailService = emailService;
+        this.userSummaryCache = userSummaryCache;
+        this.emailOutboxService = emailOutboxService;
+        this.realtimeEventService = realtimeEventService;
+        this.unreadCounterService = unreadCounterService;
     }
 
     /**
@@ -50,17 +55,22 @@ public class NotificationService {
         n.setBody(body);
         n.setCreatedAt(LocalDateTime.now());
         Notification saved = notificationRepository.save(n);
+        unreadCounterService.change(UnreadCounterService.Kind.NOTIFICATIONS, userId, 1);
+        TransactionHooks.afterCommit(() -> {
+            // Push the notification to the user's open streams
+            realtimeEventService.publish(userId, "notification", saved);
+        });
 
         if (emailEnabled && sendEmail) {
             try {
-                AppUser user = appUserRepository.findById(userId)
+                UserSummaryCache.UserSummary user = userSummaryCache.get(userId)
                         .orElseThrow(() -> new RuntimeException("User not found for notification"));
-                if (user.getEmail() != null && !user.getEmail().isBlank()) {
-                    emailService.send(user.getEmail(), title, body);
+                if (user.email() != null && !user.email().isBlank()) {
+                    emailOutboxService.enqueue(user.email(), title, body);
                 }
             } catch (Exception e) {
                 // Don't interrupt business flow on email failure
-                System.err.println("Failed to send moderation email: " + e.getMessage());
+                System.err.println("Failed to queue notification email: " + e.getMessage());
             }
         }
 
@@ -72,34 +82,41 @@ public class NotificationService {
     }
 
     public Long unreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndReadFalse(userId);
+        return unreadCounterService.get(UnreadCounterService.Kind.NOTIFICATIONS, userId);
     }
 
+    /**
+     * Mark one notification read with a conditional UPDATE, so two concurrent calls
+     * cannot both count it off the unread badge
+     */
+    @Transactional
     public Notification markRead(Long notificationId, Long userId) {
         Notification n = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
         if (!n.getUserId().equals(userId)) {
             throw new RuntimeException("Not authorized to modify this notification");
         }
-        if (Boolean.FALSE.equals(n.getRead())) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = notificationRepository.markRead(notificationId, userId, now);
+        unreadCounterService.change(UnreadCounterService.Kind.NOTIFICATIONS, userId, -updated);
+        if (updated > 0) {
             n.setRead(true);
-            n.setReadAt(LocalDateTime.now());
-            notificationRepository.save(n);
+            n.setReadAt(now);
+        } else if (Boolean.FALSE.equals(n.getRead())) {
+            // Marked read concurrently since we loaded it; return the stored state
+            n = notificationRepository.findById(notificationId).orElse(n);
         }
         return n;
     }
 
+    /**
+     * Mark every unread notification of the user read with one bulk UPDATE
+     * @return number of notifications changed
+     */
+    @Transactional
     public int markAllRead(Long userId) {
-        List<Notification> all = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        int updated = 0;
-        for (Notification n : all) {
-            if (Boolean.FALSE.equals(n.getRead())) {
-                n.setRead(true);
-                n.setReadAt(LocalDateTime.now());
-                notificationRepository.save(n);
-                updated++;
-            }
-        }
+        int updated = notificationRepository.markAllRead(userId, LocalDateTime.now());
+        unreadCounterService.change(UnreadCounterService.Kind.NOTIFICATIONS, userId, -updated);
         return updated;
     }
 }
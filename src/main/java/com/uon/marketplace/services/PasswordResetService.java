@@ -19,12 +19,12 @@ public class PasswordResetService {
     private static final int LOCK_DURATION_MINUTES = 30; // Lock for 30 minutes
 
     private final AppUserRepository appUserRepository;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final SecureRandom secureRandom = new SecureRandom();
 
-    public PasswordResetService(AppUserRepository appUserRepository, EmailService emailService) {
+    public PasswordResetService(AppUserRepository appUserRepository, EmailOutboxService emailOutboxService) {
         this.appUserRepository = appUserRepository;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
     }
 
     // Generate a 6-digit numeric code
@@ -63,7 +63,7 @@ public class PasswordResetService {
                 "This code expires in " + CODE_TTL_MINUTES + " minutes.\n\n" +
                 "If you didn't request this, you can ignore this email.\n\n" +
                 "— UON Marketplace";
-        emailService.send(user.getEmail(), subject, body);
+        emailOutboxService.enqueue(user.getEmail(), subject, body);
     }
 
     /**
@@ -121,7 +121,7 @@ public class PasswordResetService {
                     "This code expires in " + UNLOCK_CODE_TTL_MINUTES + " minutes.\n\n" +
                     "If you didn't try to log in, please reset your password immediately.\n\n" +
                     "— UON Marketplace";
-            emailService.send(user.getEmail(), subject, body);
+            emailOutboxService.enqueue(user.getEmail(), subject, body);
         } else {
             appUserRepository.save(user);
         }
@@ -0,0 +1,174 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.entities.ProductImage;
+import com.uon.marketplace.repositories.MarketPlaceProductRepository;
+import com.uon.marketplace.repositories.ProductImageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through LRU cache of a product and its ordered images, keyed by product id.
+ *
+ * Writers must call invalidate() for every listing they change: MarketPlaceProductService
+ * does so both when it writes and after commit, so a read that raced the write cannot leave
+ * the old row cached. Each load registers a token for its product id; invalidating that id
+ * drops the token, so a load that raced the invalidation does not store what it read, while
+ * loads of other products are unaffected. Callers always get copies, since the entities are mutable and
+ * are often modified and saved.
+ */
+@Component
+public class ProductDetailCache {
+
+    private record Entry(MarketPlaceProduct product, List<ProductImage> images) {}
+
+    @Autowired
+    private MarketPlaceProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Entry> entries;
+    // Product id -> token of the load in progress; guarded by entries, like the map itself
+    private final Map<Long, Object> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductDetailCache(@Value("${products.detail-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > ProductDetailCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<MarketPlaceProduct> getProduct(Long productId) {
+        Entry entry = load(productId);
+        return entry == null ? Optional.empty() : Optional.of(copy(entry.product()));
+    }
+
+    /**
+     * Images in display order; empty if the product does not exist
+     */
+    public List<ProductImage> getImages(Long productId) {
+        Entry entry = load(productId);
+        List<ProductImage> images = new ArrayList<>();
+        if (entry != null) {
+            for (ProductImage image : entry.images()) {
+                images.add(copy(image));
+            }
+        }
+        return images;
+    }
+
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        invalidations.increment();
+        synchronized (entries) {
+            entries.remove(productId);
+            loading.remove(productId);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.increment();
+        synchronized (entries) {
+            entries.clear();
+            loading.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private Entry load(Long productId) {
+        if (productId == null) {
+            return null;
+        }
+        Object token = new Object();
+        if (maxEntries > 0) {
+            Entry cached;
+            synchronized (entries) {
+                cached = entries.get(productId);
+                if (cached == null) {
+                    // The latest load of an id wins; an older one finds its token replaced
+                    loading.put(productId, token);
+                }
+            }
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        Entry entry = null;
+        try {
+            MarketPlaceProduct product = productRepository.findById(productId).orElse(null);
+            if (product == null) {
+                // Missing products are not cached; they are rare and would need create-side invalidation
+                return null;
+            }
+            entry = new Entry(copy(product),
+                productImageRepository.findByProductIdOrderByDisplayOrderAsc(productId).stream().map(ProductDetailCache::copy).toList());
+            return entry;
+        } finally {
+            if (maxEntries > 0) {
+                synchronized (entries) {
+                    if (loading.remove(productId, token) && entry != null) {
+                        entries.put(productId, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private static MarketPlaceProduct copy(MarketPlaceProduct source) {
+        return new MarketPlaceProduct(source.getProductId(), source.getSellerId(),
+            source.getSellerName(), source.getBuyerId(), source.getBuyerName(), source.getProductName(),
+            source.getCategory(), source.getCondition(), source.getProductDescription(),
+            source.getProductImageUrl(), source.getPrice(), source.getPostedDate(), source.getLastUpdate(),
+            source.getStatus(), source.getFlagged(), source.getFlagReason(), source.getReportCount(),
+            source.getRequestedStatus());
+    }
+
+    private static ProductImage copy(ProductImage source) {
+        return new ProductImage(source.getImageId(), source.getProductId(), source.getImageUrl(),
+            source.getIsPrimary(), source.getDisplayOrder(), source.getCreatedAt());
+    }
+}
@@ -0,0 +1,279 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Category / condition / price bucket counts over available listings, kept in memory.
+ *
+ * Every available listing is assigned to a cell (category, condition, price bucket) and
+ * each cell holds a count, so a facet request only sums the few hundred cells instead of
+ * grouping the whole table. MarketPlaceProductService reports every listing change after
+ * commit; update() is idempotent, since it moves the listing from its previous cell to its
+ * current one. The counts are loaded at startup and rebuilt nightly from the database.
+ * Changes that arrive during a rebuild are replayed on top of it.
+ */
+@Service
+public class ProductFacetService {
+
+    private static final String AVAILABLE = "Available";
+
+    private static final String SELECT_CHUNK =
+        "SELECT TOP (?) product_id, category, [condition], price " +
+        "FROM marketplace_products WHERE status = 'Available' AND product_id > ? ORDER BY product_id";
+
+    // Lower bounds of the price buckets; each bucket runs up to (not including) the next bound
+    private static final BigDecimal[] PRICE_BOUNDS = {
+        BigDecimal.ZERO, new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"),
+        new BigDecimal("250"), new BigDecimal("500"), new BigDecimal("1000")
+    };
+    private static final List<String> PRICE_BUCKETS = List.of(
+        "0-25", "25-50", "50-100", "100-250", "250-500", "500-1000", "1000+");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${facets.load-chunk-size:5000}")
+    private int loadChunkSize;
+
+    private record Cell(String category, String condition, String priceBucket) {}
+
+    /**
+     * Facet counts for one filter set. Each facet applies every filter except its own,
+     * so the other values of a facet stay visible with their counts. ready is false until
+     * the startup load has finished; the counts are incomplete (often all zero) until then.
+     */
+    public record FacetCounts(long total, Map<String, Long> category, Map<String, Long> condition,
+                              Map<String, Long> price, boolean ready) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Available listing -> its cell; cells are shared, so each entry costs one reference
+    private Map<Long, Cell> listings = new HashMap<>();
+    private Map<Cell, Long> counts = new HashMap<>();
+    private final Map<Cell, Cell> canonical = new HashMap<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Changes seen while a rebuild is reading the table (null cell = no longer available)
+    private final Map<Long, Cell> pendingChanges = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(this::rebuild, "product-facets-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Recompute all counts from the database (startup, nightly drift correction).
+     * Serves the previous counts until the new ones are complete.
+     */
+    @Scheduled(cron = "${facets.rebuild-cron:0 45 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<Long, Cell> loaded = new HashMap<>();
+            long lastId = 0;
+            while (true) {
+                List<Object[]> chunk = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new Object[] {
+                    rs.getLong("product_id"), rs.getString("category"), rs.getString("condition"),
+                    rs.getBigDecimal("price") }, loadChunkSize, lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastId = (Long) chunk.get(chunk.size() - 1)[0];
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : chunk) {
+                        loaded.put((Long) row[0], cellFor((String) row[1], (String) row[2], (BigDecimal) row[3]));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Cell> change : pendingChanges.entrySet()) {
+                    if (change.getValue() == null) {
+                        loaded.remove(change.getKey());
+                    } else {
+                        loaded.put(change.getKey(), change.getValue());
+                    }
+                }
+                Map<Cell, Long> rebuilt = new HashMap<>();
+                for (Cell cell : loaded.values()) {
+                    rebuilt.merge(cell, 1L, Long::sum);
+                }
+                listings = loaded;
+                counts = rebuilt;
+                ready = true;
+            } finally {
+                rebuilding.set(false);
+                pendingChanges.clear();
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding.set(false);
+                pendingChanges.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            System.err.println("Product facet rebuild failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record the listing's current state; listings that are not Available stop being counted
+     */
+    public void update(MarketPlaceProduct product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Cell cell = AVAILABLE.equals(product.getStatus())
+                ? cellFor(product.getCategory(), product.getCondition(), product.getPrice())
+                : null;
+            apply(product.getProductId(), cell);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(productId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts for the given filters (any may be null)
+     * @param priceBucket one of the bucket labels returned in the price facet, e.g. "50-100"
+     */
+    public FacetCounts getCounts(String category, String condition, String priceBucket) {
+        String categoryFilter = blankToNull(category);
+        String conditionFilter = blankToNull(condition);
+        String priceFilter = blankToNull(priceBucket);
+        if (priceFilter != null && !PRICE_BUCKETS.contains(priceFilter)) {
+            throw new RuntimeException("Unknown price bucket: " + priceBucket + " (use one of " + PRICE_BUCKETS + ")");
+        }
+
+        Map<String, Long> byCategory = new HashMap<>();
+        Map<String, Long> byCondition = new HashMap<>();
+        Map<String, Long> byPrice = new LinkedHashMap<>();
+        for (String bucket : PRICE_BUCKETS) {
+            byPrice.put(bucket, 0L);
+        }
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Cell, Long> entry : counts.entrySet()) {
+                Cell cell = entry.getKey();
+                long count = entry.getValue();
+                boolean categoryOk = categoryFilter == null || categoryFilter.equals(cell.category());
+                boolean conditionOk = conditionFilter == null || conditionFilter.equals(cell.condition());
+                boolean priceOk = priceFilter == null || priceFilter.equals(cell.priceBucket());
+                if (conditionOk && priceOk && cell.category() != null) {
+                    byCategory.merge(cell.category(), count, Long::sum);
+                }
+                if (categoryOk && priceOk && cell.condition() != null) {
+                    byCondition.merge(cell.condition(), count, Long::sum);
+                }
+                if (categoryOk && conditionOk && cell.priceBucket() != null) {
+                    byPrice.merge(cell.priceBucket(), count, Long::sum);
+                }
+                if (categoryOk && conditionOk && priceOk) {
+                    total += count;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new FacetCounts(total, sortedCounts(byCategory), sortedCounts(byCondition), byPrice, ready);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("listings", listings.size());
+            stats.put("cells", counts.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("ready", ready);
+        stats.put("rebuilding", rebuilding.get());
+        return stats;
+    }
+
+    // ---- Internals (callers hold the write lock) ----
+
+    private void apply(Long productId, Cell cell) {
+        Cell previous = cell == null ? listings.remove(productId) : listings.put(productId, cell);
+        if (previous != null) {
+            counts.computeIfPresent(previous, (c, n) -> n > 1 ? n - 1 : null);
+        }
+        if (cell != null) {
+            counts.merge(cell, 1L, Long::sum);
+        }
+        if (rebuilding.get()) {
+            pendingChanges.put(productId, cell);
+        }
+    }
+
+    private Cell cellFor(String category, String condition, BigDecimal price) {
+        Cell cell = new Cell(category, condition, priceBucket(price));
+        return canonical.computeIfAbsent(cell, c -> c);
+    }
+
+    private static String priceBucket(BigDecimal price) {
+        if (price == null || price.signum() < 0) {
+            return null;
+        }
+        for (int i = PRICE_BOUNDS.length - 1; i >= 0; i--) {
+            if (price.compareTo(PRICE_BOUNDS[i]) >= 0) {
+                return PRICE_BUCKETS.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Long> sortedCounts(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,197 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.dto.responses.ModerationResult;
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.repositories.MarketPlaceProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moderates newly created listings off the request thread (async moderation mode).
+ *
+ * The listing is already stored as pending_review, with the status the seller asked for
+ * in requested_status; once moderation finishes the status is flipped to that one, left
+ * pending with a flag, or set to removed when the listing would have been rejected
+ * outright. Listings that changed status in the meantime (e.g. an admin acted first) are
+ * left alone.
+ *
+ * If moderation throws, the listing is flagged ("moderation failed") so it appears in the
+ * admin flagged queue. Listings whose task never ran (process restarted with work queued)
+ * are picked up again by sweepStale() once they have waited longer than stale-minutes.
+ */
+@Service
+public class ProductModerationWorker {
+
+    private static final String PENDING_REVIEW = "pending_review";
+    private static final String MODERATION_FAILED_REASON = "Automatic moderation failed; needs manual review";
+    // Rows created before requested_status existed
+    private static final String DEFAULT_APPROVED_STATUS = "Available";
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    @Autowired
+    private MarketPlaceProductRepository productRepository;
+
+    @Autowired
+    private ContentModerationService moderationService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    // Lazy: MarketPlaceProductService submits to this worker
+    @Autowired
+    @Lazy
+    private MarketPlaceProductService productService;
+
+    @Autowired
+    private ProductDetailCache detailCache;
+
+    @Value("${moderation.async.stale-minutes:15}")
+    private long staleMinutes;
+
+    private final ThreadPoolExecutor workers;
+    // Listings queued or being moderated, so the sweeper does not submit them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ProductModerationWorker(@Value("${moderation.async.threads:4}") int threads,
+                                   @Value("${moderation.async.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "product-moderation-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            // Queue full: moderate on the submitting thread rather than drop the listing
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Queue a stored listing for moderation
+     */
+    public void submit(Long productId) {
+        if (productId == null || !inFlight.add(productId)) {
+            return;
+        }
+        if (workers.isShutdown()) {
+            // Shutting down: left pending for the sweeper after restart
+            inFlight.remove(productId);
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    moderate(productId);
+                } catch (Exception e) {
+                    System.err.println("Async moderation failed for product " + productId + ": " + e.getMessage());
+                    flagFailed(productId);
+                } finally {
+                    inFlight.remove(productId);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(productId);
+            System.err.println("Could not queue moderation for product " + productId + ": " + e.getMessage());
+            flagFailed(productId);
+        }
+    }
+
+    /**
+     * Re-submit listings that have waited in pending_review (unflagged) for longer than
+     * stale-minutes, e.g. because the process restarted with their tasks still queued
+     */
+    @Scheduled(fixedDelayString = "${moderation.async.sweep-interval-ms:300000}",
+               initialDelayString = "${moderation.async.sweep-interval-ms:300000}")
+    public void sweepStale() {
+        try {
+            List<Long> stale = productRepository.findStalePendingModeration(
+                LocalDateTime.now().minusMinutes(staleMinutes), Limit.of(SWEEP_BATCH_SIZE));
+            for (Long productId : stale) {
+                submit(productId);
+            }
+        } catch (Exception e) {
+            System.err.println("Pending moderation sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Put a listing whose moderation could not run in front of an admin
+     */
+    private void flagFailed(Long productId) {
+        try {
+            if (productRepository.flagFailedModeration(productId, MODERATION_FAILED_REASON, LocalDateTime.now()) > 0) {
+                detailCache.invalidate(productId);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not flag product " + productId + " after failed moderation: " + e.getMessage());
+        }
+    }
+
+    private void moderate(Long productId) {
+        MarketPlaceProduct product = productRepository.findById(productId).orElse(null);
+        if (product == null || !PENDING_REVIEW.equals(product.getStatus())) {
+            return;
+        }
+
+        ModerationResult result = moderationService.moderateProduct(product);
+
+        String status;
+        if (result.isRejected()) {
+            status = "removed";
+        } else if (result.isFlagged()) {
+            status = PENDING_REVIEW;
+        } else {
+            status = product.getRequestedStatus() != null ? product.getRequestedStatus() : DEFAULT_APPROVED_STATUS;
+        }
+        boolean flagged = !result.isApproved();
+        int updated = productRepository.applyPendingModeration(productId, status, flagged,
+                flagged ? result.getReason() : null, LocalDateTime.now());
+        if (updated == 0) {
+            // Handled by someone else while we were moderating
+            return;
+        }
+        product.setStatus(status);
+        product.setFlagged(flagged);
+        product.setFlagReason(flagged ? result.getReason() : null);
+        productService.productChanged(product);
+
+        try {
+            if (result.isRejected()) {
+                notificationService.create(
+                        product.getSellerId(),
+                        "PRODUCT_REJECTED",
+                        "Product Rejected: " + product.getProductName(),
+                        "Your product was rejected during review. Reason: " + result.getReason(),
+                        true
+                );
+            } else if (result.isFlagged()) {
+                notificationService.create(
+                        product.getSellerId(),
+                        "PRODUCT_FLAGGED",
+                        "Product Flagged for Review: " + product.getProductName(),
+                        "Your product is pending review. Reason: " + result.getReason(),
+                        true
+                );
+            }
+        } catch (Exception ignored) {}
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,231 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.dto.responses.ModerationResult;
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.repositories.MarketPlaceProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Re-runs product moderation over the whole catalogue, e.g. after new prohibited keywords are added.
+ *
+ * The table is read in keyset-paginated chunks (product_id > last seen id), so memory use
+ * is bounded by the chunk size rather than the catalogue size. Chunks are moderated on a
+ * bounded worker pool; when every worker is busy the reader moderates the chunk itself,
+ * which throttles reading to the speed of moderation. Newly flagged rows are written back
+ * with one JDBC batch update per chunk, after which the detail cache, search index and
+ * facet counts are brought in step with them. Only one re-scan runs at a time.
+ */
+@Service
+public class ProductRemoderationService {
+
+    private static final String COUNT_PRODUCTS = "SELECT COUNT(*) FROM marketplace_products";
+
+    private static final String SELECT_CHUNK =
+        "SELECT TOP (?) product_id, product_name, product_description, category, flagged, flag_reason " +
+        "FROM marketplace_products WHERE product_id > ? ORDER BY product_id";
+
+    private static final String FLAG_PRODUCT =
+        "UPDATE marketplace_products SET flagged = 1, flag_reason = ? WHERE product_id = ?";
+
+    // Matches the flag_reason column length
+    private static final int MAX_REASON_LENGTH = 200;
+    // Max ids per IN (...) query, under SQL Server's 2100 parameter limit
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContentModerationService moderationService;
+
+    @Autowired
+    private MarketPlaceProductRepository productRepository;
+
+    @Autowired
+    private MarketPlaceProductService productService;
+
+    @Value("${moderation.rescan.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${moderation.rescan.threads:4}")
+    private int threads;
+
+    private final AtomicReference<Job> currentJob = new AtomicReference<>();
+    private final AtomicLong jobIds = new AtomicLong();
+
+    private record ProductRow(long productId, String name, String description, String category,
+                              boolean flagged, String flagReason) {}
+
+    /**
+     * Progress of one re-scan; counters are updated live by the workers
+     */
+    private static final class Job {
+        final long id;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicLong flagUpdates = new AtomicLong();
+        final AtomicInteger chunks = new AtomicInteger();
+        volatile String status = "RUNNING";
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        Job(long id) {
+            this.id = id;
+        }
+
+        Map<String, Object> toMap() {
+            long totalCount = total.get();
+            long scannedCount = scanned.get();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", id);
+            map.put("status", status);
+            map.put("total", totalCount);
+            map.put("scanned", scannedCount);
+            map.put("flagUpdates", flagUpdates.get());
+            map.put("chunks", chunks.get());
+            map.put("percent", totalCount > 0 ? Math.min(100.0, scannedCount * 100.0 / totalCount) : 100.0);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("error", error);
+            return map;
+        }
+    }
+
+    /**
+     * Start a re-scan in the background.
+     * @return progress of the new job
+     * @throws RuntimeException if a re-scan is already running
+     */
+    public Map<String, Object> startRescan() {
+        Job job = new Job(jobIds.incrementAndGet());
+        Job previous = currentJob.get();
+        if (previous != null && "RUNNING".equals(previous.status)) {
+            throw new RuntimeException("A re-scan is already running (job " + previous.id + ")");
+        }
+        if (!currentJob.compareAndSet(previous, job)) {
+            throw new RuntimeException("A re-scan is already running");
+        }
+
+        Thread runner = new Thread(() -> run(job), "product-rescan-" + job.id);
+        runner.setDaemon(true);
+        runner.start();
+        return job.toMap();
+    }
+
+    /**
+     * Progress of the current or most recent re-scan, or null if none has run
+     */
+    public Map<String, Object> getStatus() {
+        Job job = currentJob.get();
+        return job != null ? job.toMap() : null;
+    }
+
+    private void run(Job job) {
+        int workerCount = Math.max(1, threads);
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workerCount),
+            r -> {
+                Thread thread = new Thread(r, "product-rescan-worker");
+                thread.setDaemon(true);
+                return thread;
+            },
+            // Backpressure: the reader moderates the chunk itself instead of fetching more
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            Long total = jdbcTemplate.queryForObject(COUNT_PRODUCTS, Long.class);
+            job.total.set(total != null ? total : 0);
+
+            List<Future<?>> pending = new ArrayList<>();
+            long lastId = 0;
+            while (true) {
+                List<ProductRow> chunk = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new ProductRow(
+                    rs.getLong("product_id"),
+                    rs.getString("product_name"),
+                    rs.getString("product_description"),
+                    rs.getString("category"),
+                    rs.getBoolean("flagged"),
+                    rs.getString("flag_reason")), chunkSize, lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastId = chunk.get(chunk.size() - 1).productId();
+                pending.add(workers.submit(() -> processChunk(job, chunk)));
+            }
+
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = "FAILED";
+            System.err.println("Product re-scan " + job.id + " failed: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void processChunk(Job job, List<ProductRow> chunk) {
+        List<Object[]> updates = new ArrayList<>();
+        for (ProductRow row : chunk) {
+            String text = row.name() + " " + (row.description() != null ? row.description() : "");
+            ModerationResult result = moderationService.rescanProductText(text, row.category());
+            if (result.isRejected() || result.isFlagged()) {
+                String reason = truncate(result.getReason());
+                // Leave rows alone that are already flagged for the same reason
+                if (!row.flagged() || !reason.equals(row.flagReason())) {
+                    updates.add(new Object[] { reason, row.productId() });
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(FLAG_PRODUCT, updates);
+            job.flagUpdates.addAndGet(updates.size());
+            productsFlagged(updates);
+        }
+        job.scanned.addAndGet(chunk.size());
+        job.chunks.incrementAndGet();
+    }
+
+    /**
+     * The batch update bypasses JPA, so refresh the cache, search index and facets from the
+     * listings' committed state (which a concurrent edit may have changed since the chunk was read)
+     */
+    private void productsFlagged(List<Object[]> updates) {
+        List<Long> productIds = new ArrayList<>(updates.size());
+        for (Object[] update : updates) {
+            productIds.add((Long) update[1]);
+        }
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            for (MarketPlaceProduct product : productRepository.findAllById(batch)) {
+                productService.productChanged(product);
+            }
+        }
+    }
+
+    private static String truncate(String reason) {
+        if (reason == null) {
+            return "";
+        }
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+}
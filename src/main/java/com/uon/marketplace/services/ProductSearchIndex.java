@@ -0,0 +1,513 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over available listings.
+ *
+ * Name, description, category and condition are tokenized into one inverted index
+ * (term -> product id -> weighted term frequency), with name and category matches
+ * weighted above description matches. Queries are ranked with BM25; every query word
+ * must match, and the last word (or any word ending in '*') also matches as a prefix
+ * through the sorted term dictionary, so partially typed queries work.
+ *
+ * MarketPlaceProductService keeps the index current on every listing change; only
+ * listings with status Available are indexed. The index is loaded from the database
+ * in keyset-paginated chunks once the application has started. Listings changed while
+ * the load runs keep the state the change gave them; their rows in later chunks are skipped.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final String AVAILABLE = "Available";
+
+    private static final String SELECT_CHUNK =
+        "SELECT TOP (?) product_id, product_name, product_description, category, [condition], price, posted_date " +
+        "FROM marketplace_products WHERE status = 'Available' AND product_id > ? ORDER BY product_id";
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float CONDITION_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Prefix matches rank below whole-word matches
+    private static final double PREFIX_WEIGHT = 0.7;
+
+    // A short prefix can expand to thousands of terms; only the first ones (in term order) are used
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    // Deepest result position a page may reach (page * size + size)
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "the", "of", "for", "in", "on", "with", "to", "or", "is", "it", "at", "by");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${search.index.load-chunk-size:5000}")
+    private int loadChunkSize;
+
+    private record Doc(long productId, Map<String, Float> terms, float length, String category,
+                       String condition, BigDecimal price, LocalDateTime postedDate) {}
+
+    private record QueryTerm(String text, boolean prefix) {}
+
+    private record Expansion(Map<Long, Float> postings, double weight) {}
+
+    /**
+     * One ranked match
+     */
+    public record Hit(long productId, double score) {}
+
+    /**
+     * One page of ranked matches, the total number of matches and facet counts over all of them
+     */
+    public record SearchResult(long total, List<Hit> hits, Map<String, Map<String, Long>> facets) {}
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private double totalLength;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+    // Listings indexed or removed while a load is reading the table
+    private final Set<Long> pendingChanges = new HashSet<>();
+
+    private volatile boolean ready;
+    private volatile long lastLoadMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(this::reload, "product-search-index-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Rebuild the index from the database. Searches keep working (on a partial index) while it runs.
+     */
+    public void reload() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            pendingChanges.clear();
+            docs.clear();
+            postings.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long lastId = 0;
+            while (true) {
+                List<MarketPlaceProduct> chunk = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> {
+                    MarketPlaceProduct product = new MarketPlaceProduct();
+                    product.setProductId(rs.getLong("product_id"));
+                    product.setProductName(rs.getString("product_name"));
+                    product.setProductDescription(rs.getString("product_description"));
+                    product.setCategory(rs.getString("category"));
+                    product.setCondition(rs.getString("condition"));
+                    product.setPrice(rs.getBigDecimal("price"));
+                    Timestamp posted = rs.getTimestamp("posted_date");
+                    product.setPostedDate(posted != null ? posted.toLocalDateTime() : null);
+                    product.setStatus(AVAILABLE);
+                    return product;
+                }, loadChunkSize, lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                lastId = chunk.get(chunk.size() - 1).getProductId();
+                List<Doc> built = new ArrayList<>(chunk.size());
+                for (MarketPlaceProduct product : chunk) {
+                    built.add(toDoc(product));
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Doc doc : built) {
+                        // A listing indexed or removed by a hook during the load is newer than this row
+                        if (!pendingChanges.contains(doc.productId())) {
+                            add(doc);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            ready = true;
+        } catch (Exception e) {
+            System.err.println("Product search index load failed: " + e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                loading.set(false);
+                pendingChanges.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastLoadMillis = System.currentTimeMillis() - started;
+        }
+    }
+
+    /**
+     * Add or refresh a listing; listings that are not Available are removed from the index
+     */
+    public void index(MarketPlaceProduct product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        if (!AVAILABLE.equals(product.getStatus())) {
+            remove(product.getProductId());
+            return;
+        }
+        Doc doc = toDoc(product);
+        lock.writeLock().lock();
+        try {
+            removeDoc(doc.productId());
+            add(doc);
+            noteChange(doc.productId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            noteChange(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search over available listings.
+     * @param query words to match; the last word (and any word ending in '*') also matches as a prefix
+     * @param page zero-based page number
+     */
+    public SearchResult search(String query, String category, String condition,
+                               BigDecimal minPrice, BigDecimal maxPrice, Integer page, Integer size) {
+        List<QueryTerm> queryTerms = parseQuery(query);
+        if (queryTerms.isEmpty()) {
+            throw new RuntimeException("Search query must contain at least one word");
+        }
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : Math.max(0, page);
+        int window = (pageNumber + 1) * limit;
+        if (window > MAX_RESULT_WINDOW) {
+            throw new RuntimeException("Page too deep: refine the search (at most " + MAX_RESULT_WINDOW + " results)");
+        }
+        String categoryFilter = blankToNull(category);
+        String conditionFilter = blankToNull(condition);
+
+        lock.readLock().lock();
+        try {
+            List<List<Expansion>> expanded = new ArrayList<>(queryTerms.size());
+            int driver = 0;
+            long driverSize = Long.MAX_VALUE;
+            for (QueryTerm term : queryTerms) {
+                List<Expansion> expansions = expand(term);
+                long matches = 0;
+                for (Expansion expansion : expansions) {
+                    matches += expansion.postings().size();
+                }
+                if (matches == 0) {
+                    // Every word must match
+                    return new SearchResult(0, List.of(), emptyFacets());
+                }
+                if (matches < driverSize) {
+                    driverSize = matches;
+                    driver = expanded.size();
+                }
+                expanded.add(expansions);
+            }
+
+            double averageLength = docs.isEmpty() ? 1.0 : Math.max(1.0, totalLength / docs.size());
+            Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score)
+                .thenComparing(hit -> docs.get(hit.productId()).postedDate(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingLong(Hit::productId);
+            // Min-heap of the best 'window' hits: the weakest is evicted first
+            PriorityQueue<Hit> top = new PriorityQueue<>(window + 1, ranking);
+            Map<String, Long> categoryCounts = new HashMap<>();
+            Map<String, Long> conditionCounts = new HashMap<>();
+            long total = 0;
+
+            Set<Long> seen = new HashSet<>();
+            for (Expansion driving : expanded.get(driver)) {
+                for (Long productId : driving.postings().keySet()) {
+                    if (!seen.add(productId)) {
+                        continue;
+                    }
+                    Doc doc = docs.get(productId);
+                    if (doc == null || !matchesFilters(doc, categoryFilter, conditionFilter, minPrice, maxPrice)) {
+                        continue;
+                    }
+                    double score = 0;
+                    boolean matchedAll = true;
+                    for (List<Expansion> expansions : expanded) {
+                        double termScore = score(productId, doc, expansions, averageLength);
+                        if (termScore <= 0) {
+                            matchedAll = false;
+                            break;
+                        }
+                        score += termScore;
+                    }
+                    if (!matchedAll) {
+                        continue;
+                    }
+                    total++;
+                    count(categoryCounts, doc.category());
+                    count(conditionCounts, doc.condition());
+                    top.offer(new Hit(productId, score));
+                    if (top.size() > window) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(ranking.reversed());
+            int from = Math.min(pageNumber * limit, ranked.size());
+            List<Hit> hits = new ArrayList<>(ranked.subList(from, Math.min(from + limit, ranked.size())));
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("category", sortedCounts(categoryCounts));
+            facets.put("condition", sortedCounts(conditionCounts));
+            return new SearchResult(total, hits, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("documents", docs.size());
+            stats.put("terms", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("ready", ready);
+        stats.put("loading", loading.get());
+        stats.put("lastLoadMillis", lastLoadMillis);
+        return stats;
+    }
+
+    // ---- Index maintenance (callers hold the write lock) ----
+
+    private void add(Doc doc) {
+        docs.put(doc.productId(), doc);
+        totalLength += doc.length();
+        for (Map.Entry<String, Float> entry : doc.terms().entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(doc.productId(), entry.getValue());
+        }
+    }
+
+    private void removeDoc(long productId) {
+        Doc doc = docs.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length();
+        for (String term : doc.terms().keySet()) {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private void noteChange(long productId) {
+        if (loading.get()) {
+            pendingChanges.add(productId);
+        }
+    }
+
+    private static Doc toDoc(MarketPlaceProduct product) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = addField(terms, product.getProductName(), NAME_WEIGHT)
+            + addField(terms, product.getProductDescription(), DESCRIPTION_WEIGHT)
+            + addField(terms, product.getCategory(), CATEGORY_WEIGHT)
+            + addField(terms, product.getCondition(), CONDITION_WEIGHT);
+        return new Doc(product.getProductId(), terms, length, product.getCategory(), product.getCondition(),
+            product.getPrice(), product.getPostedDate());
+    }
+
+    private static float addField(Map<String, Float> terms, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            terms.merge(token, weight, Float::sum);
+        }
+        return tokens.size();
+    }
+
+    // ---- Querying (callers hold the read lock) ----
+
+    private List<Expansion> expand(QueryTerm term) {
+        if (!term.prefix() || term.text().length() < MIN_PREFIX_LENGTH) {
+            Map<Long, Float> exact = postings.get(term.text());
+            return exact == null ? List.of() : List.of(new Expansion(exact, 1.0));
+        }
+        NavigableMap<String, Map<Long, Float>> range =
+            postings.subMap(term.text(), true, term.text() + Character.MAX_VALUE, false);
+        List<Expansion> expansions = new ArrayList<>();
+        for (Map.Entry<String, Map<Long, Float>> entry : range.entrySet()) {
+            if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expansions.add(new Expansion(entry.getValue(), entry.getKey().equals(term.text()) ? 1.0 : PREFIX_WEIGHT));
+        }
+        return expansions;
+    }
+
+    private double score(long productId, Doc doc, List<Expansion> expansions, double averageLength) {
+        double best = 0;
+        for (Expansion expansion : expansions) {
+            Float tf = expansion.postings().get(productId);
+            if (tf == null) {
+                continue;
+            }
+            int df = expansion.postings().size();
+            double idf = Math.log(1 + (docs.size() - df + 0.5) / (df + 0.5));
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length() / averageLength));
+            // A word counts once, through its best-matching expansion
+            best = Math.max(best, idf * norm * expansion.weight());
+        }
+        return best;
+    }
+
+    private static boolean matchesFilters(Doc doc, String category, String condition,
+                                          BigDecimal minPrice, BigDecimal maxPrice) {
+        if (category != null && !category.equals(doc.category())) {
+            return false;
+        }
+        if (condition != null && !condition.equals(doc.condition())) {
+            return false;
+        }
+        if (minPrice != null && (doc.price() == null || doc.price().compareTo(minPrice) < 0)) {
+            return false;
+        }
+        return maxPrice == null || (doc.price() != null && doc.price().compareTo(maxPrice) <= 0);
+    }
+
+    private static List<QueryTerm> parseQuery(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        String[] words = query.trim().split("\\s+");
+        for (int i = 0; i < words.length; i++) {
+            List<String> tokens = tokenize(words[i]);
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            boolean prefix = words[i].endsWith("*") || i == words.length - 1;
+            for (int t = 0; t < tokens.size(); t++) {
+                terms.add(new QueryTerm(tokens.get(t), prefix && t == tokens.size() - 1));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lowercased letter/digit runs without stop words, with a light plural strip ("phones" -> "phone")
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String stem(String token) {
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private static void count(Map<String, Long> counts, String value) {
+        if (value != null) {
+            counts.merge(value, 1L, Long::sum);
+        }
+    }
+
+    private static Map<String, Long> sortedCounts(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static Map<String, Map<String, Long>> emptyFacets() {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put("category", Map.of());
+        facets.put("condition", Map.of());
+        return facets;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
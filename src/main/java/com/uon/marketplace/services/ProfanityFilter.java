@@ -1,83 +1,60 @@
 package com.uon.marketplace.services;
 
+import com.uon.marketplace.utils.ProfanityScanner;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ProfanityFilter {
     
     // Common profanity list (add your own words here)
-    private static final Set<String> BAD_WORDS = new HashSet<>(Arrays.asList(
+    private static final List<String> DEFAULT_BAD_WORDS = List.of(
         // Basic profanity
         "damn", "hell", "crap", "shit", "fuck", "bitch", "ass", "asshole",
         "bastard", "piss", "dick", "cock", "pussy", "whore", "slut",
         
-        // Variations with numbers/symbols (will be detected by pattern matching)
+        // Variations with numbers/symbols (also detected by the scanner's variant matching)
         "f*ck", "sh!t", "b!tch", "a$$", "f***"
-    ));
-    
-    // Patterns to catch variations (e.g., "f***", "sh!t", "b1tch")
-    private static final List<Pattern> PROFANITY_PATTERNS = Arrays.asList(
-        Pattern.compile("\\bf+[u*@#$]+c+k+\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\bs+[h!#$]+[i!1]+t+\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\bb+[i!1]+t+c+h+\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\ba+[s$5]+[s$5]+\\b", Pattern.CASE_INSENSITIVE),
-        Pattern.compile("\\bd+[a@]+m+n+\\b", Pattern.CASE_INSENSITIVE)
     );
     
+    // Single-pass engine with the word list precompiled into a trie; variations like
+    // "f***", "sh!t", "b1tch" are matched by its built-in automata.
+    // Immutable and swapped as a whole, so concurrent scans never see a half-edited list.
+    private volatile ProfanityScanner scanner = new ProfanityScanner(DEFAULT_BAD_WORDS);
+    
+    // Bumped whenever the word list changes, so cached verdicts can tell they are stale
+    private final AtomicLong version = new AtomicLong();
+    
+    /**
+     * Scan text once and return every profane hit with its offsets.
+     * Use this when you need both the verdict and the words, instead of calling
+     * containsProfanity followed by findProfanity.
+     */
+    public ProfanityScanner.Result scan(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return scanner.scan(null, false);
+        }
+        return scanner.scan(text, false);
+    }
+    
     /**
-     * Check if text contains profanity
+     * Check if text contains profanity (stops at the first hit)
      */
     public boolean containsProfanity(String text) {
         if (text == null || text.trim().isEmpty()) {
             return false;
         }
         
-        String lowerText = text.toLowerCase();
-        
-        // Check exact word matches
-        String[] words = lowerText.split("\\s+");
-        for (String word : words) {
-            // Remove punctuation
-            String cleanWord = word.replaceAll("[^a-zA-Z0-9]", "");
-            if (BAD_WORDS.contains(cleanWord)) {
-                return true;
-            }
-        }
-        
-        // Check patterns (catches variations like "f***", "sh!t")
-        for (Pattern pattern : PROFANITY_PATTERNS) {
-            if (pattern.matcher(lowerText).find()) {
-                return true;
-            }
-        }
-        
-        return false;
+        return scanner.scan(text, true).found();
     }
     
     /**
      * Find all profane words in text
      */
     public List<String> findProfanity(String text) {
-        List<String> found = new ArrayList<>();
-        
-        if (text == null || text.trim().isEmpty()) {
-            return found;
-        }
-        
-        String lowerText = text.toLowerCase();
-        String[] words = lowerText.split("\\s+");
-        
-        for (String word : words) {
-            String cleanWord = word.replaceAll("[^a-zA-Z0-9]", "");
-            if (BAD_WORDS.contains(cleanWord)) {
-                found.add(word);
-            }
-        }
-        
-        return found;
+        return scan(text).words();
     }
     
     /**
@@ -88,34 +65,36 @@ public class ProfanityFilter {
             return text;
         }
         
-        String cleaned = text;
-        
-        // Replace exact matches
-        for (String badWord : BAD_WORDS) {
-            String replacement = "*".repeat(badWord.length());
-            Pattern pattern = Pattern.compile("\\b" + Pattern.quote(badWord) + "\\b", Pattern.CASE_INSENSITIVE);
-            cleaned = pattern.matcher(cleaned).replaceAll(replacement);
-        }
-        
-        // Replace pattern matches
-        for (Pattern pattern : PROFANITY_PATTERNS) {
-            cleaned = pattern.matcher(cleaned).replaceAll(m -> "*".repeat(m.group().length()));
-        }
-        
-        return cleaned;
+        return scanner.scan(text, false).mask(text);
+    }
+    
+    /**
+     * Version of the word list in use (starts at 0, changes on every add/remove)
+     */
+    public long getVersion() {
+        return version.get();
     }
     
     /**
-     * Add custom bad word (for admin management)
+     * Add custom bad word (for admin management).
+     * Rebuilds the scanner copy-on-write; in-flight scans finish on the old one.
      */
-    public void addBadWord(String word) {
-        BAD_WORDS.add(word.toLowerCase());
+    public synchronized void addBadWord(String word) {
+        Set<String> words = new LinkedHashSet<>(scanner.getWords());
+        if (words.add(word.toLowerCase())) {
+            scanner = new ProfanityScanner(words);
+            version.incrementAndGet();
+        }
     }
     
     /**
      * Remove word from filter
      */
-    public void removeBadWord(String word) {
-        BAD_WORDS.remove(word.toLowerCase());
+    public synchronized void removeBadWord(String word) {
+        Set<String> words = new LinkedHashSet<>(scanner.getWords());
+        if (words.remove(word.toLowerCase())) {
+            scanner = new ProfanityScanner(words);
+            version.incrementAndGet();
+        }
     }
 }
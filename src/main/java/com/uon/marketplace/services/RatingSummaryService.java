@@ -0,0 +1,94 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.RatingSummary;
+import com.uon.marketplace.entities.RatingSummaryId;
+import com.uon.marketplace.repositories.RatingSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Maintains rating_summaries so average ratings are a primary-key read instead of
+ * loading and averaging every review.
+ *
+ * The review services call the review* hooks inside their own transaction, so a review
+ * and its summary change commit or roll back together. rebuildAll() recomputes every
+ * summary from the review tables to correct any drift (runs nightly and on demand).
+ */
+@Service
+public class RatingSummaryService {
+
+    private static final String REBUILD =
+        "INSERT INTO rating_summaries (user_id, role, review_count, rating_sum, " +
+        "stars_1, stars_2, stars_3, stars_4, stars_5, updated_at) " +
+        "SELECT %1$s, '%2$s', COUNT(*), SUM(CAST(rating AS BIGINT)), " +
+        "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END), GETDATE() " +
+        "FROM %3$s GROUP BY %1$s";
+
+    @Autowired
+    private RatingSummaryRepository ratingSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void reviewAdded(String role, Long userId, Integer rating) {
+        apply(role, userId, 1, value(rating), 0);
+    }
+
+    @Transactional
+    public void reviewRemoved(String role, Long userId, Integer rating) {
+        apply(role, userId, -1, 0, value(rating));
+    }
+
+    @Transactional
+    public void reviewChanged(String role, Long userId, Integer oldRating, Integer newRating) {
+        if (value(oldRating) == value(newRating)) {
+            return;
+        }
+        apply(role, userId, 0, value(newRating), value(oldRating));
+    }
+
+    public Optional<RatingSummary> getSummary(String role, Long userId) {
+        return ratingSummaryRepository.findById(new RatingSummaryId(userId, role));
+    }
+
+    /**
+     * Average rating for the user in that role, 0.0 when there are no reviews
+     */
+    public double getAverageRating(String role, Long userId) {
+        return getSummary(role, userId).map(RatingSummary::getAverageRating).orElse(0.0);
+    }
+
+    /**
+     * Recompute every summary from the review tables (one GROUP BY query per role).
+     * @return number of summaries written
+     */
+    @Transactional
+    @Scheduled(cron = "${ratings.summary.rebuild-cron:0 30 3 * * *}")
+    public int rebuildAll() {
+        jdbcTemplate.update("DELETE FROM rating_summaries");
+        return jdbcTemplate.update(String.format(REBUILD, "seller_id", RatingSummary.SELLER, "seller_reviews"))
+            + jdbcTemplate.update(String.format(REBUILD, "buyer_id", RatingSummary.BUYER, "buyer_reviews"));
+    }
+
+    private void apply(String role, Long userId, long countDelta, int added, int removed) {
+        if (userId == null) {
+            return;
+        }
+        // Creates the row on a first review; nothing to change on a missing row otherwise,
+        // rebuildAll() corrects any drift
+        ratingSummaryRepository.upsertDelta(userId, role, countDelta, added, removed, LocalDateTime.now());
+    }
+
+    private static int value(Integer rating) {
+        return rating == null ? 0 : rating;
+    }
+}
@@ -0,0 +1,234 @@
+package com.uon.marketplace.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes per-user events (new messages, read receipts, notifications) to open
+ * Server-Sent Events connections, so clients do not have to poll for them.
+ *
+ * Each user may hold a few connections (tabs, devices); opening one more closes their
+ * oldest. publish() never blocks the caller: every connection has its own bounded queue,
+ * drained by a small pool of sender threads with at most one drain per connection at a
+ * time, so a slow client only backs up (and drops, counted) its own events. Connections
+ * that fail on send are forgotten; a heartbeat on its own thread queues keep-alives that
+ * find dead ones and keep proxies from closing idle streams.
+ */
+@Service
+public class RealtimeEventService {
+
+    /** Events sent to one connection per drain before the sender moves on to other connections */
+    private static final int DRAIN_BATCH = 32;
+
+    /** One open stream and the events waiting to be written to it */
+    private static final class Connection {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEventBuilder> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Connection(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    @Value("${realtime.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${realtime.connection-timeout-ms:1800000}")
+    private long connectionTimeoutMs;
+
+    @Value("${realtime.connection-queue-capacity:100}")
+    private int connectionQueueCapacity;
+
+    @Value("${realtime.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${realtime.heartbeat-interval-ms:25000}")
+    private long heartbeatIntervalMs;
+
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeats;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, r -> daemon(r, "realtime-sender-" + senderCount.incrementAndGet()));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "realtime-heartbeat"));
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (List<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.emitter.complete();
+            }
+        }
+        connections.clear();
+    }
+
+    /**
+     * Open an event stream for the user
+     */
+    public SseEmitter connect(Long userId) {
+        SseEmitter emitter = new SseEmitter(connectionTimeoutMs);
+        Connection connection = new Connection(userId, emitter, connectionQueueCapacity);
+        List<Connection> evicted = new ArrayList<>();
+        // Inside compute, so a concurrent disconnect cannot drop the list we add to
+        connections.compute(userId, (id, current) -> {
+            List<Connection> list = current != null ? current : new CopyOnWriteArrayList<>();
+            list.add(connection);
+            while (list.size() > maxConnectionsPerUser) {
+                evicted.add(list.remove(0));
+            }
+            return list;
+        });
+        for (Connection oldest : evicted) {
+            oldest.emitter.complete();
+        }
+        emitter.onCompletion(() -> disconnect(connection));
+        emitter.onTimeout(() -> disconnect(connection));
+        emitter.onError(e -> disconnect(connection));
+        return emitter;
+    }
+
+    /**
+     * Queue an event for all of the user's open streams; a no-op when they have none
+     */
+    public void publish(Long userId, String name, Object data) {
+        if (userId == null) {
+            return;
+        }
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        published.increment();
+        for (Connection connection : userConnections) {
+            enqueue(connection, SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int connectionCount = 0;
+        int queued = 0;
+        for (List<Connection> userConnections : connections.values()) {
+            connectionCount += userConnections.size();
+            for (Connection connection : userConnections) {
+                queued += connection.pending.size();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connectedUsers", connections.size());
+        stats.put("connections", connectionCount);
+        stats.put("queued", queued);
+        stats.put("connectionQueueCapacity", connectionQueueCapacity);
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+
+    private void heartbeat() {
+        for (List<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                // A connection with events already waiting needs no keep-alive
+                if (connection.pending.isEmpty()) {
+                    enqueue(connection, SseEmitter.event().comment("keep-alive"));
+                }
+            }
+        }
+    }
+
+    private void enqueue(Connection connection, SseEventBuilder event) {
+        if (!connection.pending.offer(event)) {
+            // This client is not keeping up; only its own events are lost
+            dropped.increment();
+            return;
+        }
+        scheduleDrain(connection);
+    }
+
+    private void scheduleDrain(Connection connection) {
+        if (!connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            connection.draining.set(false);
+        }
+    }
+
+    private void drain(Connection connection) {
+        try {
+            for (int sent = 0; sent < DRAIN_BATCH; sent++) {
+                SseEventBuilder event = connection.pending.poll();
+                if (event == null) {
+                    break;
+                }
+                try {
+                    connection.emitter.send(event);
+                    delivered.increment();
+                } catch (Exception e) {
+                    // Client went away; the container completes the emitter, we just stop using it
+                    disconnect(connection);
+                    connection.pending.clear();
+                    return;
+                }
+            }
+        } finally {
+            connection.draining.set(false);
+        }
+        // Events queued while we were sending, or more than one batch's worth
+        if (!connection.pending.isEmpty()) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
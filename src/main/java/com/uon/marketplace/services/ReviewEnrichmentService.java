@@ -0,0 +1,123 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.dto.responses.BuyerReviewResponse;
+import com.uon.marketplace.dto.responses.SellerReviewResponse;
+import com.uon.marketplace.entities.BuyerReviews;
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.entities.SellerReviews;
+import com.uon.marketplace.repositories.MarketPlaceProductRepository;
+import com.uon.marketplace.services.UserSummaryCache.UserSummary;
+import com.uon.marketplace.utils.ResponseMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds review responses in bulk.
+ *
+ * Converting reviews one at a time costs three lookups per review (reviewer profile,
+ * reviewed user's profile, product). Here every user and product id referenced by a
+ * set of reviews is collected first; users come from UserSummaryCache (misses loaded
+ * in batches) and products from findAllById in chunks of 1000 ids, so a listing costs a
+ * few queries however many reviews it has.
+ */
+@Service
+public class ReviewEnrichmentService {
+
+    // Max ids per IN (...) query, under SQL Server's 2100 parameter limit
+    private static final int PRODUCT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private MarketPlaceProductRepository productRepository;
+
+    @Autowired
+    private ResponseMapper responseMapper;
+
+    /**
+     * Users and products for a set of reviews, loaded once and shared by every conversion
+     */
+    public final class Lookup {
+        private final Map<Long, UserSummary> users;
+        private final Map<Long, MarketPlaceProduct> products;
+
+        private Lookup(Map<Long, UserSummary> users, Map<Long, MarketPlaceProduct> products) {
+            this.users = users;
+            this.products = products;
+        }
+
+        public List<SellerReviewResponse> toSellerReviewResponses(List<SellerReviews> reviews) {
+            List<SellerReviewResponse> responses = new ArrayList<>(reviews.size());
+            for (SellerReviews review : reviews) {
+                responses.add(responseMapper.converToSellerReviewResponse(review,
+                        profile(review.getReviewerId()), profile(review.getSellerId()),
+                        products.get(review.getProductId())));
+            }
+            return responses;
+        }
+
+        public List<BuyerReviewResponse> toBuyerReviewResponses(List<BuyerReviews> reviews) {
+            List<BuyerReviewResponse> responses = new ArrayList<>(reviews.size());
+            for (BuyerReviews review : reviews) {
+                responses.add(responseMapper.convertToBuyerReviewResponse(review,
+                        profile(review.getReviewerId()), profile(review.getBuyerId()),
+                        products.get(review.getProductId())));
+            }
+            return responses;
+        }
+
+        private UserSummary profile(Long userId) {
+            // Same failure as the one-at-a-time path (UserProfileService.getProfileByUserId)
+            return UserSummaryCache.requireProfile(users, userId);
+        }
+    }
+
+    /**
+     * Load everything referenced by the given reviews in one pass.
+     * Pass every list that will be converted so they all share the same two queries.
+     */
+    public Lookup lookupFor(Collection<SellerReviews> sellerReviews, Collection<BuyerReviews> buyerReviews) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (SellerReviews review : sellerReviews) {
+            userIds.add(review.getReviewerId());
+            userIds.add(review.getSellerId());
+            productIds.add(review.getProductId());
+        }
+        for (BuyerReviews review : buyerReviews) {
+            userIds.add(review.getReviewerId());
+            userIds.add(review.getBuyerId());
+            productIds.add(review.getProductId());
+        }
+        userIds.remove(null);
+        productIds.remove(null);
+
+        Map<Long, UserSummary> users = userIds.isEmpty() ? Map.of() : userSummaryCache.getAll(userIds);
+        Map<Long, MarketPlaceProduct> products = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += PRODUCT_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PRODUCT_BATCH_SIZE, ids.size()));
+            for (MarketPlaceProduct product : productRepository.findAllById(chunk)) {
+                products.put(product.getProductId(), product);
+            }
+        }
+        return new Lookup(users, products);
+    }
+
+    public List<SellerReviewResponse> toSellerReviewResponses(List<SellerReviews> reviews) {
+        return lookupFor(reviews, List.of()).toSellerReviewResponses(reviews);
+    }
+
+    public List<BuyerReviewResponse> toBuyerReviewResponses(List<BuyerReviews> reviews) {
+        return lookupFor(List.of(), reviews).toBuyerReviewResponses(reviews);
+    }
+}
@@ -1,16 +1,25 @@
 package com.uon.marketplace.services;
 
+import com.uon.marketplace.dto.responses.SavedProductCard;
+import com.uon.marketplace.dto.responses.SavedProductPageResponse;
 import com.uon.marketplace.entities.SavedProduct;
 import com.uon.marketplace.repositories.SavedProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class SavedProductService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private SavedProductRepository savedProductRepository;
 
@@ -39,4 +48,46 @@ public class SavedProductService {
     public boolean isProductSaved(Long userId, Long productId) {
         return savedProductRepository.existsByUserIdAndProductId(userId, productId);
     }
+
+    /**
+     * All saved products with their card data (one join, newest first)
+     */
+    public List<SavedProductCard> getSavedProductCards(Long userId) {
+        return savedProductRepository.findCardsByUserId(userId, Limit.unlimited());
+    }
+
+    /**
+     * Keyset-paginated saved products, newest first: each page is one bounded join that
+     * seeks past the (savedDate, savedId) of the previous page's last row.
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public SavedProductPageResponse getSavedProductPage(Long userId, String cursor, Integer size) {
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<SavedProductCard> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = savedProductRepository.findCardsByUserId(userId, fetch);
+        } else {
+            String[] parts;
+            LocalDateTime savedDate;
+            Long savedId;
+            try {
+                parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                savedDate = LocalDateTime.parse(parts[0]);
+                savedId = Long.valueOf(parts[1]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            rows = savedProductRepository.findCardsByUserIdAfter(userId, savedDate, savedId, fetch);
+        }
+        if (rows.size() <= limit) {
+            return new SavedProductPageResponse(rows, null, false);
+        }
+        List<SavedProductCard> page = new ArrayList<>(rows.subList(0, limit));
+        SavedProductCard last = page.get(page.size() - 1);
+        String raw = last.getSavedDate() + "|" + last.getSavedId();
+        String nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        return new SavedProductPageResponse(page, nextCursor, true);
+    }
 }
@@ -1,10 +1,12 @@
 package com.uon.marketplace.services;
 
 import com.uon.marketplace.dto.requests.SellerReviewRequest;
+import com.uon.marketplace.entities.RatingSummary;
 import com.uon.marketplace.entities.SellerReviews;
 import com.uon.marketplace.repositories.SellerReviewsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,10 @@ public class SellerReviewService {
     @Autowired
     private SellerReviewsRepository sellerReviewsRepository;
 
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Transactional
     public SellerReviews createReview(SellerReviewRequest request) {
         SellerReviews review = new SellerReviews();
         review.setReviewerId(request.getReviewerId());
@@ -21,14 +27,20 @@ public class SellerReviewService {
         review.setRating(request.getRating());
         review.setProductId(request.getProductId());
         review.setReviewText(request.getReviewText());
-        return sellerReviewsRepository.save(review);
+        SellerReviews saved = sellerReviewsRepository.save(review);
+        ratingSummaryService.reviewAdded(RatingSummary.SELLER, saved.getSellerId(), saved.getRating());
+        return saved;
     }
+    @Transactional
     public SellerReviews updateReview(Long reviewId, SellerReviewRequest request) {
         return sellerReviewsRepository.findById(reviewId)
                 .map(review -> {
+                    Integer oldRating = review.getRating();
                     review.setRating(request.getRating());
                     review.setReviewText(request.getReviewText());
-                    return sellerReviewsRepository.save(review);
+                    SellerReviews saved = sellerReviewsRepository.save(review);
+                    ratingSummaryService.reviewChanged(RatingSummary.SELLER, saved.getSellerId(), oldRating, saved.getRating());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Review not found"));
     }
@@ -41,8 +53,12 @@ public class SellerReviewService {
         return sellerReviewsRepository.findBySellerId(sellerId);
     }
 
+    @Transactional
     public void deleteReview(Long reviewId) {
-        sellerReviewsRepository.deleteById(reviewId);
+        sellerReviewsRepository.findById(reviewId).ifPresent(review -> {
+            sellerReviewsRepository.delete(review);
+            ratingSummaryService.reviewRemoved(RatingSummary.SELLER, review.getSellerId(), review.getRating());
+        });
     }
 
     public List<SellerReviews> getReviewsByReviewerId(Long reviewerId) {
@@ -55,13 +71,9 @@ public class SellerReviewService {
                 .filter(review -> review.getProductId().equals(productId))
                 .toList();
     }
+    // Served from rating_summaries (one primary-key read)
     public Double getAverageRatingForSeller(Long userId) {
-        List<SellerReviews> reviews = sellerReviewsRepository.findBySellerId(userId);
-        if (reviews.isEmpty()) {
-            return 0.0;
-        }
-        double sum = reviews.stream().mapToDouble(SellerReviews::getRating).sum();
-        return sum / reviews.size();
-    }   
+        return ratingSummaryService.getAverageRating(RatingSummary.SELLER, userId);
+    }
     
 }
@@ -0,0 +1,242 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.repositories.MessageRepository;
+import com.uon.marketplace.repositories.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user unread message and notification counts kept in memory, so badge queries
+ * (polled by every open client) do not hit the database.
+ *
+ * A user's count is loaded from the database on first use. After that, MessageService
+ * and NotificationService report each change inside their transaction and it is applied
+ * after commit: new items count up and mark-read operations count down by the number of
+ * rows they changed. Users are spread over lock stripes. A change marks its stripe as
+ * in flight just before commit and clears the mark once applied, bumping the stripe
+ * version both times; a database load or reconcile that overlapped either step may
+ * already include the change, so it is not stored. reconcile() periodically replaces the
+ * cached counts with fresh ones, to correct drift from deletes or missed events.
+ */
+@Service
+public class UnreadCounterService {
+
+    public enum Kind { MESSAGES, NOTIFICATIONS }
+
+    private static final int STRIPES = 64;
+    // Max ids per IN (...) query, under SQL Server's 2100 parameter limit
+    private static final int BATCH_SIZE = 1000;
+
+    private static final class Stripe {
+        final Map<Long, Long> counts = new HashMap<>();
+        long version;
+        // Changes past beforeCommit whose delta is not applied yet
+        int inFlight;
+    }
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private final int maxEntriesPerStripe;
+    private final Map<Kind, Stripe[]> stores = new EnumMap<>(Kind.class);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+
+    public UnreadCounterService(@Value("${unread.counters.max-entries:100000}") int maxEntries) {
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        for (Kind kind : Kind.values()) {
+            Stripe[] stripes = new Stripe[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+            stores.put(kind, stripes);
+        }
+    }
+
+    public long get(Kind kind, Long userId) {
+        if (userId == null) {
+            return 0;
+        }
+        Stripe stripe = stripe(kind, userId);
+        long seen;
+        synchronized (stripe) {
+            Long cached = stripe.counts.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            seen = stripe.version;
+        }
+        loads.increment();
+        long loaded = load(kind, userId);
+        synchronized (stripe) {
+            if (stripe.version == seen && stripe.inFlight == 0) {
+                if (stripe.counts.size() >= maxEntriesPerStripe) {
+                    // Drop an arbitrary user of this stripe; they are reloaded on next use
+                    Iterator<Long> it = stripe.counts.keySet().iterator();
+                    it.next();
+                    it.remove();
+                }
+                stripe.counts.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Report a change made in the current transaction: +n for new items, -n for items marked
+     * read. It is applied once the transaction commits (immediately when there is none).
+     * Users whose count is not loaded are skipped; their next read loads the committed state.
+     */
+    public void change(Kind kind, Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(kind, userId, delta, false, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                begin(kind, userId);
+                started = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (started) {
+                    apply(kind, userId, delta, true, status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    /**
+     * Replace every cached count with the database value, one stripe at a time.
+     * A stripe that changed while its counts were being read is left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${unread.counters.reconcile-interval-ms:300000}",
+               initialDelayString = "${unread.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            for (Kind kind : Kind.values()) {
+                for (Stripe stripe : stores.get(kind)) {
+                    reconcile(kind, stripe);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Unread counter reconcile failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Kind kind : Kind.values()) {
+            int size = 0;
+            for (Stripe stripe : stores.get(kind)) {
+                synchronized (stripe) {
+                    size += stripe.counts.size();
+                }
+            }
+            stats.put(kind.name().toLowerCase() + "Users", size);
+        }
+        stats.put("maxEntries", maxEntriesPerStripe * STRIPES);
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("reconcileCorrections", corrections.sum());
+        return stats;
+    }
+
+    private void reconcile(Kind kind, Stripe stripe) {
+        List<Long> userIds;
+        long seen;
+        synchronized (stripe) {
+            if (stripe.counts.isEmpty()) {
+                return;
+            }
+            userIds = new ArrayList<>(stripe.counts.keySet());
+            seen = stripe.version;
+        }
+        Map<Long, Long> fresh = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + BATCH_SIZE, userIds.size()));
+            List<Object[]> rows = kind == Kind.MESSAGES
+                ? messageRepository.countUnreadByReceiverIn(chunk)
+                : notificationRepository.countUnreadByUserIn(chunk);
+            for (Object[] row : rows) {
+                fresh.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        synchronized (stripe) {
+            if (stripe.version != seen || stripe.inFlight > 0) {
+                return;
+            }
+            for (Long userId : userIds) {
+                long count = fresh.getOrDefault(userId, 0L);
+                Long previous = stripe.counts.replace(userId, count);
+                if (previous != null && previous != count) {
+                    corrections.increment();
+                }
+            }
+        }
+    }
+
+    private void begin(Kind kind, Long userId) {
+        Stripe stripe = stripe(kind, userId);
+        synchronized (stripe) {
+            stripe.version++;
+            stripe.inFlight++;
+        }
+    }
+
+    /**
+     * Apply a committed change, clearing its in-flight mark in the same step. When the outcome
+     * is not a commit (rolled back or unknown) the user's count is dropped and reloaded on next use.
+     */
+    private void apply(Kind kind, Long userId, long delta, boolean wasInFlight, boolean committed) {
+        Stripe stripe = stripe(kind, userId);
+        synchronized (stripe) {
+            stripe.version++;
+            if (wasInFlight) {
+                stripe.inFlight--;
+            }
+            if (committed) {
+                stripe.counts.computeIfPresent(userId, (id, count) -> Math.max(0, count + delta));
+            } else {
+                stripe.counts.remove(userId);
+            }
+        }
+    }
+
+    private long load(Kind kind, Long userId) {
+        Long count = kind == Kind.MESSAGES
+            ? messageRepository.countUnreadMessages(userId)
+            : notificationRepository.countByUserIdAndReadFalse(userId);
+        return count != null ? count : 0L;
+    }
+
+    private Stripe stripe(Kind kind, Long userId) {
+        return stores.get(kind)[Math.floorMod(userId.hashCode(), STRIPES)];
+    }
+}
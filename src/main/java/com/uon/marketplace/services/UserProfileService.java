@@ -13,6 +13,9 @@ public class UserProfileService {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
     public List<UserProfile> getAllProfiles() {
         return userProfileRepository.findAll();
     }
@@ -22,23 +25,30 @@ public class UserProfileService {
     }
 
     public UserProfile createProfile(UserProfile profile) {
-        return userProfileRepository.save(profile);
+        UserProfile saved = userProfileRepository.save(profile);
+        // The user may already be cached without a profile
+        userSummaryCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     public UserProfile updateProfile(Long id, UserProfile profileDetails) {
         return userProfileRepository.findById(id)
                 .map(profile -> {
+                    userSummaryCache.invalidate(profile.getUserId());
                     profile.setUserId(profileDetails.getUserId());
                     profile.setFirstName(profileDetails.getFirstName());
                     profile.setLastName(profileDetails.getLastName());
                     profile.setPhoneNumber(profileDetails.getPhoneNumber());
                     profile.setProfileImageUrl(profileDetails.getProfileImageUrl());
-                    return userProfileRepository.save(profile);
+                    UserProfile saved = userProfileRepository.save(profile);
+                    userSummaryCache.invalidate(saved.getUserId());
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Profile not found"));
     }
 
     public void deleteProfile(Long id) {
+        userProfileRepository.findById(id).ifPresent(profile -> userSummaryCache.invalidate(profile.getUserId()));
         userProfileRepository.deleteById(id);
     }
 
@@ -31,8 +31,10 @@ public class UserService {
     private final AppUserService appUserService;
     private final ResponseMapper responseMapper;
     private final ProductReportRepository productReportRepository;
+    private final ReviewEnrichmentService reviewEnrichmentService;
+    private final RatingSummaryService ratingSummaryService;
 
-    public UserService(UserProfileService userProfileService, MarketPlaceProductService marketPlaceProductService, SellerReviewService sellerReviewService, BuyerReviewService buyerReviewService, AppUserService appUserService, ResponseMapper responseMapper, ProductReportRepository productReportRepository) {
+    public UserService(UserProfileService userProfileService, MarketPlaceProductService marketPlaceProductService, SellerReviewService sellerReviewService, BuyerReviewService buyerReviewService, AppUserService appUserService, ResponseMapper responseMapper, ProductReportRepository productReportRepository, ReviewEnrichmentService reviewEnrichmentService, RatingSummaryService ratingSummaryService) {
         this.userProfileService = userProfileService;
         this.marketPlaceProductService = marketPlaceProductService;
         this.sellerReviewService = sellerReviewService;
@@ -40,6 +42,8 @@ public class UserService {
         this.appUserService = appUserService;
         this.responseMapper = responseMapper;
         this.productReportRepository = productReportRepository;
+        this.reviewEnrichmentService = reviewEnrichmentService;
+        this.ratingSummaryService = ratingSummaryService;
     }
 
     public UserProfile getUserProfile(Long userId) {
@@ -154,6 +158,32 @@ public class UserService {
     public java.util.List<com.uon.marketplace.dto.responses.MarketPlaceProductResponse> getAllDetailedAvailableProducts() {
         return responseMapper.toMarketPlaceProductResponseList(marketPlaceProductService.getAvailableProducts());
     }
+    // paginated, filterable catalogue (see MarketPlaceProductService.browseAvailableProducts)
+    public com.uon.marketplace.dto.responses.ProductPageResponse browseAvailableProducts(String category, String condition,
+            java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, String sort, String cursor, Integer size) {
+        MarketPlaceProductService.ProductPage page = marketPlaceProductService.browseAvailableProducts(
+                category, condition, minPrice, maxPrice, sort, cursor, size);
+        return new com.uon.marketplace.dto.responses.ProductPageResponse(
+                responseMapper.toMarketPlaceProductResponseList(page.products()),
+                page.nextCursor(),
+                page.nextCursor() != null);
+    }
+    // facet counts for browse filters (see ProductFacetService)
+    public com.uon.marketplace.dto.responses.ProductFacetsResponse getProductFacets(String category, String condition, String priceBucket) {
+        ProductFacetService.FacetCounts counts = marketPlaceProductService.getFacetCounts(category, condition, priceBucket);
+        return new com.uon.marketplace.dto.responses.ProductFacetsResponse(
+                counts.total(), counts.category(), counts.condition(), counts.price(), counts.ready());
+    }
+    // ranked full-text search (see MarketPlaceProductService.searchAvailableProducts)
+    public com.uon.marketplace.dto.responses.ProductSearchResponse searchProducts(String query, String category,
+            String condition, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, Integer page, Integer size) {
+        MarketPlaceProductService.SearchPage result = marketPlaceProductService.searchAvailableProducts(
+                query, category, condition, minPrice, maxPrice, page, size);
+        return new com.uon.marketplace.dto.responses.ProductSearchResponse(
+                responseMapper.toMarketPlaceProductResponseList(result.products()),
+                result.total(),
+                result.facets());
+    }
     public SellerReviewResponse converToSellerReviewResponse(SellerReviews review) {
         return responseMapper.converToSellerReviewResponse(review);
     }
@@ -162,11 +192,7 @@ public class UserService {
         if(reviews.isEmpty()) {
             throw new RuntimeException("No reviews found for seller ID: " + sellerId);
         }
-        List<SellerReviewResponse> responseList = new java.util.ArrayList<>();
-        for(SellerReviews review : reviews) {
-            responseList.add(converToSellerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toSellerReviewResponses(reviews);
     }
     
     public List<SellerReviewResponse> getAllReviewsByReviewerId(Long reviewerId) {
@@ -174,11 +200,7 @@ public class UserService {
         if(reviews.isEmpty()) {
             throw new RuntimeException("No reviews found for reviewer ID: " + reviewerId);
         }
-        List<SellerReviewResponse> responseList = new java.util.ArrayList<>();
-        for(SellerReviews review : reviews) {
-            responseList.add(converToSellerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toSellerReviewResponses(reviews);
     }
     public SellerReviewResponse addSellerReview(SellerReviewRequest review) {
         if(!verifyPurchase(review.getReviewerId(), review.getSellerId(), review.getProductId())) {
@@ -215,11 +237,7 @@ public class UserService {
         if(reviews.isEmpty()) {
             throw new RuntimeException("No reviews found for buyer ID: " + buyerId);
         }
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> responseList = new java.util.ArrayList<>();
-        for(com.uon.marketplace.entities.BuyerReviews review : reviews) {
-            responseList.add(convertToBuyerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toBuyerReviewResponses(reviews);
     }
 
     public List<com.uon.marketplace.dto.responses.BuyerReviewResponse> getAllReviewsByReviewerIdForBuyer(Long reviewerId) {
@@ -227,11 +245,7 @@ public class UserService {
         if(reviews.isEmpty()) {
             throw new RuntimeException("No reviews found for reviewer ID: " + reviewerId);
         }
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> responseList = new java.util.ArrayList<>();
-        for(com.uon.marketplace.entities.BuyerReviews review : reviews) {
-            responseList.add(convertToBuyerReviewResponse(review));
-        }
-        return responseList;
+        return reviewEnrichmentService.toBuyerReviewResponses(reviews);
     }
 
     public com.uon.marketplace.dto.responses.BuyerReviewResponse addBuyerReview(com.uon.marketplace.dto.requests.BuyerReviewRequest review) {
@@ -264,34 +278,26 @@ public class UserService {
     }
     //get average rating for a seller
     public AverageRating getAverageRatingForSeller(Long sellerId) {
-        List<SellerReviews> reviews = sellerReviewService.getReviewsBySellerId(sellerId);
-        if(reviews.isEmpty()) {
-            throw new RuntimeException("No reviews found for seller ID: " + sellerId);
-        }
-        double totalRating = 0;
-        for(SellerReviews review : reviews) {
-            totalRating += review.getRating();
-        }
-        double average = totalRating / reviews.size();
+        // O(1) read of the maintained summary instead of loading every review
+        com.uon.marketplace.entities.RatingSummary summary = ratingSummaryService
+                .getSummary(com.uon.marketplace.entities.RatingSummary.SELLER, sellerId)
+                .filter(s -> s.getReviewCount() > 0)
+                .orElseThrow(() -> new RuntimeException("No reviews found for seller ID: " + sellerId));
         AverageRating avgRating = new AverageRating();
-        avgRating.setAverageRating(average);
-        avgRating.setTotalReviews(reviews.size());
+        avgRating.setAverageRating(summary.getAverageRating());
+        avgRating.setTotalReviews(summary.getReviewCount().intValue());
         return avgRating;
     }
     //get average rating for a buyer
     public AverageRating getAverageRatingForBuyer(Long buyerId) {
-        List<com.uon.marketplace.entities.BuyerReviews> reviews = buyerReviewService.getReviewsByBuyerId(buyerId);
-        if(reviews.isEmpty()) {
-            throw new RuntimeException("No reviews found for buyer ID: " + buyerId);
-        }
-        double totalRating = 0;
-        for(com.uon.marketplace.entities.BuyerReviews review : reviews) {
-            totalRating += review.getRating();
-        }
-        double average = totalRating / reviews.size();
+        // O(1) read of the maintained summary instead of loading every review
+        com.uon.marketplace.entities.RatingSummary summary = ratingSummaryService
+                .getSummary(com.uon.marketplace.entities.RatingSummary.BUYER, buyerId)
+                .filter(s -> s.getReviewCount() > 0)
+                .orElseThrow(() -> new RuntimeException("No reviews found for buyer ID: " + buyerId));
         AverageRating avgRating = new AverageRating();
-        avgRating.setAverageRating(average);
-        avgRating.setTotalReviews(reviews.size());
+        avgRating.setAverageRating(summary.getAverageRating());
+        avgRating.setTotalReviews(summary.getReviewCount().intValue());
         return avgRating;
     
     }
@@ -315,15 +321,10 @@ public class UserService {
         List<com.uon.marketplace.entities.BuyerReviews> buyerReviewsGiven = buyerReviewService.getReviewsByProductId(productId);
         List<SellerReviews> sellerReviews = sellerReviewService.getReviewsByProductId(productId);
         
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewResponses = new java.util.ArrayList<>();
-        for(com.uon.marketplace.entities.BuyerReviews review : buyerReviewsGiven) {
-            buyerReviewResponses.add(convertToBuyerReviewResponse(review));
-        }
-        
-        List<SellerReviewResponse> sellerReviewResponses = new java.util.ArrayList<>();
-        for(SellerReviews review : sellerReviews) {
-            sellerReviewResponses.add(converToSellerReviewResponse(review));
-        }
+        // One batched lookup of profiles and products for both lists
+        ReviewEnrichmentService.Lookup lookup = reviewEnrichmentService.lookupFor(sellerReviews, buyerReviewsGiven);
+        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewResponses = lookup.toBuyerReviewResponses(buyerReviewsGiven);
+        List<SellerReviewResponse> sellerReviewResponses = lookup.toSellerReviewResponses(sellerReviews);
         
         ProductReviews productReviews = new ProductReviews();
         productReviews.setProductId(productId);
@@ -339,25 +340,18 @@ public class UserService {
         List<com.uon.marketplace.entities.BuyerReviews> buyerReviews = buyerReviewService.getReviewsByReviewerId(userId);
         System.out.println("Seller Reviews Count: " + sellerReviews.size());
         System.out.println("Buyer Reviews Count: " + buyerReviews.size());
-        List<SellerReviewResponse> sellerReviewResponses = new java.util.ArrayList<>();
-        for(SellerReviews review : sellerReviews) {
-            sellerReviewResponses.add(converToSellerReviewResponse(review));
-        }
-
-        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewResponses = new java.util.ArrayList<>();
-        for(com.uon.marketplace.entities.BuyerReviews review : buyerReviews) {
-            buyerReviewResponses.add(convertToBuyerReviewResponse(review));
-        }
         //received reviews
         List<SellerReviews> sellerReviewsGiven = sellerReviewService.getReviewsByReviewerId(userId);
         List<com.uon.marketplace.entities.BuyerReviews> buyerReviewsRecieved = buyerReviewService.getReviewsByBuyerId(userId);
-        // append these two lists to the existing lists
-        for(SellerReviews review : sellerReviewsGiven) {
-            sellerReviewResponses.add(converToSellerReviewResponse(review));
-        }
-        for(com.uon.marketplace.entities.BuyerReviews review : buyerReviewsRecieved) {
-            buyerReviewResponses.add(convertToBuyerReviewResponse(review));
-        }
+
+        // all four lists share one batched lookup of profiles and products
+        List<SellerReviews> allSellerReviews = new java.util.ArrayList<>(sellerReviews);
+        allSellerReviews.addAll(sellerReviewsGiven);
+        List<com.uon.marketplace.entities.BuyerReviews> allBuyerReviews = new java.util.ArrayList<>(buyerReviews);
+        allBuyerReviews.addAll(buyerReviewsRecieved);
+        ReviewEnrichmentService.Lookup lookup = reviewEnrichmentService.lookupFor(allSellerReviews, allBuyerReviews);
+        List<SellerReviewResponse> sellerReviewResponses = lookup.toSellerReviewResponses(allSellerReviews);
+        List<com.uon.marketplace.dto.responses.BuyerReviewResponse> buyerReviewResponses = lookup.toBuyerReviewResponses(allBuyerReviews);
 
         MyReviews myReviews = new MyReviews();
         myReviews.setSellerReviews(sellerReviewResponses);
@@ -0,0 +1,198 @@
+package com.uon.marketplace.services;
+
+import com.uon.marketplace.entities.AppUser;
+import com.uon.marketplace.entities.Role;
+import com.uon.marketplace.entities.UserProfile;
+import com.uon.marketplace.repositories.AppUserRepository;
+import com.uon.marketplace.repositories.UserProfileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of the account and profile fields that messaging, notifications and
+ * review responses need (email, name, status, role), keyed by user id.
+ *
+ * Entries are immutable summaries rather than entities, so they can be shared freely.
+ * AppUserService, UserProfileService and EmailVerificationService invalidate a user when
+ * they change the account or profile (ban, unban, verify and delete all go through them).
+ * Each load registers a token per missing id; invalidating an id drops its token, so a load
+ * that raced the invalidation does not store that user, while other users are unaffected.
+ */
+@Component
+public class UserSummaryCache {
+
+    // Max ids per IN (...) query, under SQL Server's 2100 parameter limit
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Display fields of one user; names are null when the user has no profile
+     */
+    public record UserSummary(Long userId, String email, String firstName, String lastName,
+                              String status, Role role, boolean hasProfile) {
+
+        /**
+         * "First Last" as shown across the app, or null without a profile
+         */
+        public String displayName() {
+            return hasProfile ? firstName + " " + lastName : null;
+        }
+    }
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Long, UserSummary> entries;
+    // User id -> token of the load in progress; guarded by entries, like the map itself
+    private final Map<Long, Object> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public UserSummaryCache(@Value("${users.summary-cache.max-entries:20000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserSummary> eldest) {
+                if (size() > UserSummaryCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The user's summary from a getAll() result, failing like UserProfileService.getProfileByUserId
+     * when the user has no profile
+     */
+    public static UserSummary requireProfile(Map<Long, UserSummary> users, Long userId) {
+        UserSummary user = users.get(userId);
+        if (user == null || !user.hasProfile()) {
+            throw new RuntimeException("Profile not found for user ID: " + userId);
+        }
+        return user;
+    }
+
+    public Optional<UserSummary> get(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(getAll(List.of(userId)).get(userId));
+    }
+
+    /**
+     * Summaries for many users; misses are loaded with one account and one profile query per batch.
+     * Unknown ids are left out of the result.
+     */
+    public Map<Long, UserSummary> getAll(Collection<Long> userIds) {
+        Map<Long, UserSummary> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        Object token = new Object();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+            UserSummary cached = null;
+            if (maxEntries > 0) {
+                synchronized (entries) {
+                    cached = entries.get(userId);
+                    if (cached == null) {
+                        // The latest load of an id wins; an older one finds its token replaced
+                        loading.put(userId, token);
+                    }
+                }
+            }
+            if (cached != null) {
+                hits.increment();
+                result.put(userId, cached);
+            } else {
+                misses.increment();
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, UserSummary> loaded = new HashMap<>();
+        try {
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+                Map<Long, UserProfile> profiles = new HashMap<>();
+                for (UserProfile profile : userProfileRepository.findByUserIdIn(chunk)) {
+                    profiles.putIfAbsent(profile.getUserId(), profile);
+                }
+                for (AppUser user : appUserRepository.findAllById(chunk)) {
+                    loaded.put(user.getUserId(), toSummary(user, profiles.get(user.getUserId())));
+                }
+            }
+        } finally {
+            if (maxEntries > 0) {
+                synchronized (entries) {
+                    for (Long userId : missing) {
+                        UserSummary summary = loaded.get(userId);
+                        if (loading.remove(userId, token) && summary != null) {
+                            entries.put(userId, summary);
+                        }
+                    }
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidations.increment();
+        synchronized (entries) {
+            entries.remove(userId);
+            loading.remove(userId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private static UserSummary toSummary(AppUser user, UserProfile profile) {
+        return new UserSummary(user.getUserId(), user.getEmail(),
+            profile != null ? profile.getFirstName() : null,
+            profile != null ? profile.getLastName() : null,
+            user.getStatus(), user.getRole(), profile != null);
+    }
+}
@@ -0,0 +1,215 @@
+package com.uon.marketplace.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Aho-Corasick automaton over prohibited keywords.
+ *
+ * Keywords and text are folded through the same leet-speak normalization
+ * ("m@rijuana" -> "marijuana", "w33d" -> "weed") so a single left-to-right
+ * pass finds every keyword, however many there are. A hit is accepted when
+ * the raw text contains the keyword verbatim, or when the normalized hit sits
+ * on word boundaries - the same rules the old per-keyword regexes applied.
+ */
+public final class KeywordAutomaton {
+
+    private static final KeywordAutomaton EMPTY = new KeywordAutomaton(List.of());
+
+    private final List<String> keywords;
+    private final String[] lowered;
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<int[]> outputs = new ArrayList<>();
+    private int[] fail;
+
+    private KeywordAutomaton(Collection<String> source) {
+        this.keywords = List.copyOf(source);
+        this.lowered = new String[keywords.size()];
+        newNode();
+        for (int k = 0; k < keywords.size(); k++) {
+            lowered[k] = keywords.get(k).toLowerCase();
+            insert(k, lowered[k]);
+        }
+        buildFailureLinks();
+    }
+
+    public static KeywordAutomaton compile(Collection<String> keywords) {
+        if (keywords == null || keywords.isEmpty()) {
+            return EMPTY;
+        }
+        List<String> usable = new ArrayList<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isBlank()) {
+                usable.add(keyword);
+            }
+        }
+        return usable.isEmpty() ? EMPTY : new KeywordAutomaton(usable);
+    }
+
+    public static KeywordAutomaton empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return keywords.size();
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * True as soon as any keyword is found (stops scanning on the first hit).
+     */
+    public boolean matchesAny(String text) {
+        if (text == null || keywords.isEmpty()) {
+            return false;
+        }
+        return scan(text, null);
+    }
+
+    /**
+     * All keywords found in text, in the order they were compiled.
+     */
+    public List<String> findAll(String text) {
+        List<String> found = new ArrayList<>();
+        if (text == null || keywords.isEmpty()) {
+            return found;
+        }
+        boolean[] seen = new boolean[keywords.size()];
+        scan(text, seen);
+        for (int k = 0; k < seen.length; k++) {
+            if (seen[k]) {
+                found.add(keywords.get(k));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Walks the text once. With seen == null returns on the first accepted hit,
+     * otherwise marks every accepted keyword and scans to the end.
+     */
+    private boolean scan(String text, boolean[] seen) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = normalize(text.charAt(i));
+            state = next(state, c);
+            for (int k : outputs.get(state)) {
+                if (seen != null && seen[k]) {
+                    continue;
+                }
+                int start = i - lowered[k].length() + 1;
+                if (accept(text, start, i + 1, k)) {
+                    if (seen == null) {
+                        return true;
+                    }
+                    seen[k] = true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean accept(String text, int start, int end, int k) {
+        // Direct (case-insensitive) substring match, no boundary requirement
+        if (text.regionMatches(true, start, lowered[k], 0, lowered[k].length())) {
+            return true;
+        }
+        // Leet-speak variant: must stand on word boundaries like "\b...\b"
+        return isBoundary(text, start) && isBoundary(text, end);
+    }
+
+    private static boolean isBoundary(String text, int pos) {
+        boolean before = pos > 0 && isWordChar(text.charAt(pos - 1));
+        boolean after = pos < text.length() && isWordChar(text.charAt(pos));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Folds common character substitutions onto the letter they stand for.
+     */
+    public static char normalize(char c) {
+        switch (c) {
+            case '@': return 'a';
+            case '3': return 'e';
+            case '1':
+            case '!': return 'i';
+            case '0': return 'o';
+            case '$':
+            case '5': return 's';
+            default: return Character.toLowerCase(c);
+        }
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            Integer target = transitions.get(state).get(c);
+            if (target != null) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int newNode() {
+        transitions.add(new HashMap<>());
+        outputs.add(new int[0]);
+        return transitions.size() - 1;
+    }
+
+    private void insert(int keywordIndex, String keyword) {
+        int state = 0;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = normalize(keyword.charAt(i));
+            Integer target = transitions.get(state).get(c);
+            if (target == null) {
+                target = newNode();
+                transitions.get(state).put(c, target);
+            }
+            state = target;
+        }
+        outputs.set(state, append(outputs.get(state), keywordIndex));
+    }
+
+    private void buildFailureLinks() {
+        fail = new int[transitions.size()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                int child = edge.getValue();
+                int link = fail[state];
+                while (link != 0 && !transitions.get(link).containsKey(edge.getKey())) {
+                    link = fail[link];
+                }
+                Integer target = transitions.get(link).get(edge.getKey());
+                fail[child] = target != null ? target : 0;
+                // Inherit matches that end at the suffix state
+                int[] inherited = outputs.get(fail[child]);
+                for (int k : inherited) {
+                    outputs.set(child, append(outputs.get(child), k));
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] copy = Arrays.copyOf(values, values.length + 1);
+        copy[values.length] = value;
+        return copy;
+    }
+}
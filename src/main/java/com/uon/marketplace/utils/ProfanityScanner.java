@@ -0,0 +1,295 @@
+package com.uon.marketplace.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass profanity engine shared by containsProfanity, findProfanity and cleanText.
+ *
+ * One walk over the text tracks three things at once:
+ *  - word runs ("\b...\b" units), checked against the bad word list
+ *  - whitespace tokens with punctuation stripped ("s.h.i.t" -> "shit"), checked when the
+ *    token had no word-run hit
+ *  - obfuscated variants ("fuuuck", "sh!t", "b1tch") via tiny character-class automata
+ *    that replace the old regexes
+ * Every hit carries its offsets so callers can report or mask without re-scanning.
+ *
+ * The word list is compiled into a character trie that is walked alongside the text,
+ * so no per-word strings are built while scanning. Instances are immutable; build a
+ * new one when the word list changes.
+ */
+public final class ProfanityScanner {
+
+    // Each variant is a sequence of character classes, every class repeated one or more times.
+    // Equivalent to \bf+[u*@#$]+c+k+\b etc.
+    private static final String[][] VARIANTS = {
+        {"f", "u*@#$", "c", "k"},
+        {"s", "h!#$", "i!1", "t"},
+        {"b", "i!1", "t", "c", "h"},
+        {"a", "s$5", "s$5"},
+        {"d", "a@", "m", "n"}
+    };
+
+    // Symbols that may be part of a listed word ("f*ck", "a$$")
+    private static final String WORD_SYMBOLS = "*@#$!";
+
+    // Character trie over the word list: node 0 is the root
+    private final List<Map<Character, Integer>> children = new ArrayList<>();
+    private final List<Boolean> terminal = new ArrayList<>();
+    private final List<String> words;
+
+    public ProfanityScanner(Collection<String> words) {
+        List<String> lowered = new ArrayList<>();
+        newNode();
+        for (String word : words) {
+            if (word == null || word.isBlank()) {
+                continue;
+            }
+            String w = word.toLowerCase();
+            lowered.add(w);
+            int node = 0;
+            for (int i = 0; i < w.length(); i++) {
+                Integer child = children.get(node).get(w.charAt(i));
+                if (child == null) {
+                    child = newNode();
+                    children.get(node).put(w.charAt(i), child);
+                }
+                node = child;
+            }
+            terminal.set(node, true);
+        }
+        this.words = List.copyOf(lowered);
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public record Hit(int start, int end, String word) {}
+
+    public static final class Result {
+        private final List<Hit> hits;
+
+        private Result(List<Hit> hits) {
+            this.hits = hits;
+        }
+
+        public boolean found() {
+            return !hits.isEmpty();
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public List<String> words() {
+            List<String> found = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                found.add(hit.word());
+            }
+            return found;
+        }
+
+        /**
+         * Copy of text with every hit replaced by asterisks of the same length
+         */
+        public String mask(String text) {
+            if (hits.isEmpty()) {
+                return text;
+            }
+            char[] buffer = text.toCharArray();
+            for (Hit hit : hits) {
+                for (int i = hit.start(); i < hit.end(); i++) {
+                    buffer[i] = '*';
+                }
+            }
+            return new String(buffer);
+        }
+    }
+
+    public Result scan(String text, boolean stopAtFirst) {
+        List<Hit> hits = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return new Result(hits);
+        }
+
+        int n = text.length();
+        // Trie positions (-1 = fell off the trie) for the current word run,
+        // the punctuation-stripped token and the symbol-bearing token core
+        int runNode = -1;
+        int cleanNode = -1;
+        int rawNode = -1;
+        int coreNode = -1;
+        int runStart = -1;
+        int tokenStart = -1;
+        int tokenHits = 0;
+        int coreStart = -1;
+        int coreEnd = -1;
+        int[] masks = new int[VARIANTS.length];
+        int[][] starts = new int[VARIANTS.length][];
+        for (int p = 0; p < VARIANTS.length; p++) {
+            starts[p] = new int[VARIANTS[p].length];
+        }
+
+        char prev = 0;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            char lower = Character.toLowerCase(c);
+            boolean word = isWordChar(c);
+            boolean prevWord = i > 0 && isWordChar(prev);
+            boolean nextWord = i + 1 < n && isWordChar(text.charAt(i + 1));
+
+            // --- whitespace token bookkeeping ---
+            if (Character.isWhitespace(c)) {
+                if (tokenStart >= 0) {
+                    checkToken(text, cleanNode, coreNode, coreStart, coreEnd, tokenHits, hits);
+                    if (stopAtFirst && !hits.isEmpty()) {
+                        return new Result(hits);
+                    }
+                    tokenStart = -1;
+                }
+            } else {
+                if (tokenStart < 0) {
+                    tokenStart = i;
+                    tokenHits = hits.size();
+                    coreStart = -1;
+                    cleanNode = 0;
+                    rawNode = -1;
+                }
+                if (lower < 128 && Character.isLetterOrDigit(lower)) {
+                    cleanNode = child(cleanNode, lower);
+                }
+                boolean core = Character.isLetterOrDigit(c) || WORD_SYMBOLS.indexOf(c) >= 0;
+                if (core && coreStart < 0) {
+                    coreStart = i;
+                    rawNode = 0;
+                }
+                if (coreStart >= 0) {
+                    rawNode = child(rawNode, lower);
+                }
+                if (core) {
+                    coreEnd = i + 1;
+                    coreNode = rawNode;
+                }
+            }
+
+            // --- word runs ---
+            if (word) {
+                if (!prevWord) {
+                    runStart = i;
+                    runNode = 0;
+                }
+                runNode = child(runNode, lower);
+            }
+
+            // --- obfuscated variants ---
+            boolean startBoundary = word && !prevWord;
+            boolean endBoundary = word != nextWord;
+            for (int p = 0; p < VARIANTS.length; p++) {
+                masks[p] = step(VARIANTS[p], masks[p], starts[p], lower, i, startBoundary);
+                int last = VARIANTS[p].length - 1;
+                if ((masks[p] & (1 << last)) != 0 && endBoundary) {
+                    addHit(hits, text, starts[p][last], i + 1);
+                    if (stopAtFirst) {
+                        return new Result(hits);
+                    }
+                }
+            }
+
+            if (word && !nextWord) {
+                if (isTerminal(runNode)) {
+                    addHit(hits, text, runStart, i + 1);
+                    if (stopAtFirst) {
+                        return new Result(hits);
+                    }
+                }
+            }
+            prev = c;
+        }
+
+        if (tokenStart >= 0) {
+            checkToken(text, cleanNode, coreNode, coreStart, coreEnd, tokenHits, hits);
+        }
+        return new Result(hits);
+    }
+
+    /**
+     * Token-level fallback, only when nothing inside the token matched already:
+     * the punctuation-stripped form ("s.h.i.t") or the symbol form ("f***").
+     */
+    private void checkToken(String text, int cleanNode, int coreNode, int coreStart, int coreEnd,
+                            int tokenHits, List<Hit> hits) {
+        if (hits.size() > tokenHits || coreStart < 0) {
+            return;
+        }
+        if (isTerminal(cleanNode) || isTerminal(coreNode)) {
+            addHit(hits, text, coreStart, coreEnd);
+        }
+    }
+
+    private int newNode() {
+        children.add(new HashMap<>());
+        terminal.add(false);
+        return children.size() - 1;
+    }
+
+    private int child(int node, char c) {
+        if (node < 0) {
+            return -1;
+        }
+        Integer next = children.get(node).get(c);
+        return next != null ? next : -1;
+    }
+
+    private boolean isTerminal(int node) {
+        return node > 0 && terminal.get(node);
+    }
+
+    /**
+     * Advances one variant automaton by one character, in place.
+     * Bit g of mask means "currently inside class g"; starts[g] keeps the leftmost start.
+     * Classes are updated from last to first so each step only reads the previous state.
+     */
+    private static int step(String[] classes, int mask, int[] starts, char c, int pos, boolean boundary) {
+        int next = 0;
+        for (int g = classes.length - 1; g >= 0; g--) {
+            if (classes[g].indexOf(c) < 0) {
+                continue;
+            }
+            int best = -1;
+            if ((mask & (1 << g)) != 0) {
+                best = starts[g];
+            }
+            if (g > 0 && (mask & (1 << (g - 1))) != 0) {
+                best = best < 0 ? starts[g - 1] : Math.min(best, starts[g - 1]);
+            }
+            if (g == 0 && boundary) {
+                best = best < 0 ? pos : Math.min(best, pos);
+            }
+            if (best >= 0) {
+                next |= 1 << g;
+                starts[g] = best;
+            }
+        }
+        return next;
+    }
+
+    private static void addHit(List<Hit> hits, String text, int start, int end) {
+        if (!hits.isEmpty()) {
+            Hit last = hits.get(hits.size() - 1);
+            if (last.start() == start && last.end() <= end) {
+                // Same match seen by another rule, or a longer greedy match of the same start
+                hits.set(hits.size() - 1, new Hit(start, end, text.substring(start, end).toLowerCase()));
+                return;
+            }
+        }
+        hits.add(new Hit(start, end, text.substring(start, end).toLowerCase()));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
@@ -8,31 +8,40 @@ import com.uon.marketplace.dto.responses.MarketPlaceProductResponse;
 import com.uon.marketplace.dto.responses.SellerReviewResponse;
 import com.uon.marketplace.entities.MarketPlaceProduct;
 import com.uon.marketplace.entities.SellerReviews;
-import com.uon.marketplace.entities.UserProfile;
 import com.uon.marketplace.services.MarketPlaceProductService;
-import com.uon.marketplace.services.UserProfileService;
+import com.uon.marketplace.services.UserSummaryCache;
+import com.uon.marketplace.services.UserSummaryCache.UserSummary;
 
 import org.springframework.stereotype.Component;
 
 @Component
 public class ResponseMapper {
     @Autowired
-    private UserProfileService userProfileService;
+    private UserSummaryCache userSummaryCache;
     @Autowired
     private MarketPlaceProductService marketPlaceProductService;
 
       public com.uon.marketplace.dto.responses.BuyerReviewResponse convertToBuyerReviewResponse(com.uon.marketplace.entities.BuyerReviews review) {
-        UserProfile reviewerProfile = userProfileService.getProfileByUserId(review.getReviewerId());
-        UserProfile buyerProfile = userProfileService.getProfileByUserId(review.getBuyerId());
+        java.util.Map<Long, UserSummary> users = userSummaryCache.getAll(java.util.List.of(review.getReviewerId(), review.getBuyerId()));
+        UserSummary reviewer = UserSummaryCache.requireProfile(users, review.getReviewerId());
+        UserSummary buyer = UserSummaryCache.requireProfile(users, review.getBuyerId());
+        MarketPlaceProduct product = marketPlaceProductService.getProductById(review.getProductId()).orElse(null);
+        return convertToBuyerReviewResponse(review, reviewer, buyer, product);
+    }
+    
+    /**
+     * Same as above with the related rows already loaded (see ReviewEnrichmentService)
+     */
+    public com.uon.marketplace.dto.responses.BuyerReviewResponse convertToBuyerReviewResponse(com.uon.marketplace.entities.BuyerReviews review,
+            UserSummary reviewer, UserSummary buyer, MarketPlaceProduct product) {
         com.uon.marketplace.dto.responses.BuyerReviewResponse response = new com.uon.marketplace.dto.responses.BuyerReviewResponse();
-        response.setBuyerName(buyerProfile.getFirstName() + " " + buyerProfile.getLastName());
-        response.setReviewerName(reviewerProfile.getFirstName() + " " + reviewerProfile.getLastName());
+        response.setBuyerName(buyer.displayName());
+        response.setReviewerName(reviewer.displayName());
         response.setRating(review.getRating());
         response.setReviewText(review.getReviewText());
         response.setReviewId(review.getReviewId());
         response.setReviewerId(review.getReviewerId());
         response.setBuyerId(review.getBuyerId());
-        MarketPlaceProduct product = marketPlaceProductService.getProductById(review.getProductId()).orElse(null);
         if(product != null) {
             response.setProductName(product.getProductName());
             response.setProductPrice(product.getPrice());
@@ -43,17 +52,26 @@ public class ResponseMapper {
         return response;
     }
     public SellerReviewResponse converToSellerReviewResponse(SellerReviews review) {
-        UserProfile reviewerProfile = userProfileService.getProfileByUserId(review.getReviewerId());
-        UserProfile sellerProfile = userProfileService.getProfileByUserId(review.getSellerId());
+        java.util.Map<Long, UserSummary> users = userSummaryCache.getAll(java.util.List.of(review.getReviewerId(), review.getSellerId()));
+        UserSummary reviewer = UserSummaryCache.requireProfile(users, review.getReviewerId());
+        UserSummary seller = UserSummaryCache.requireProfile(users, review.getSellerId());
+        MarketPlaceProduct product = marketPlaceProductService.getProductById(review.getProductId()).orElse(null);
+        return converToSellerReviewResponse(review, reviewer, seller, product);
+    }
+    
+    /**
+     * Same as above with the related rows already loaded (see ReviewEnrichmentService)
+     */
+    public SellerReviewResponse converToSellerReviewResponse(SellerReviews review,
+            UserSummary reviewer, UserSummary seller, MarketPlaceProduct product) {
         SellerReviewResponse response = new SellerReviewResponse();
         response.setReviewId(review.getReviewId());
-        response.setSellerName(sellerProfile.getFirstName() + " " + sellerProfile.getLastName());
-        response.setReviewerName(reviewerProfile.getFirstName() + " " + reviewerProfile.getLastName());
+        response.setSellerName(seller.displayName());
+        response.setReviewerName(reviewer.displayName());
         response.setRating(review.getRating());
         response.setReviewText(review.getReviewText());
         response.setReviewerId(review.getReviewerId());
         response.setSellerId(review.getSellerId());
-        MarketPlaceProduct product = marketPlaceProductService.getProductById(review.getProductId()).orElse(null);
         if(product != null) {
             response.setProductName(product.getProductName());
             response.setProductPrice(product.getPrice());
@@ -80,6 +98,33 @@ public class ResponseMapper {
     
     public MarketPlaceProductResponse toMarketPlaceProductResponse(MarketPlaceProduct product) {
         if (product == null) return null;
+        // collect image URLs from product_images table
+        return toMarketPlaceProductResponse(product, marketPlaceProductService.getProductImages(product.getProductId()));
+    }
+    
+    /**
+     * Maps a list of products with their images loaded in one batched query,
+     * instead of one product_images query per product.
+     */
+    public java.util.List<MarketPlaceProductResponse> toMarketPlaceProductResponseList(java.util.List<MarketPlaceProduct> products) {
+        java.util.List<Long> productIds = new java.util.ArrayList<>();
+        for (MarketPlaceProduct p : products) {
+            if (p != null) {
+                productIds.add(p.getProductId());
+            }
+        }
+        java.util.Map<Long, java.util.List<com.uon.marketplace.entities.ProductImage>> imagesByProduct =
+                marketPlaceProductService.getProductImagesByProductIds(productIds);
+        java.util.List<MarketPlaceProductResponse> list = new java.util.ArrayList<>();
+        for (MarketPlaceProduct p : products) {
+            list.add(p == null ? null
+                    : toMarketPlaceProductResponse(p, imagesByProduct.getOrDefault(p.getProductId(), java.util.List.of())));
+        }
+        return list;
+    }
+    
+    private MarketPlaceProductResponse toMarketPlaceProductResponse(MarketPlaceProduct product,
+            java.util.List<com.uon.marketplace.entities.ProductImage> images) {
         MarketPlaceProductResponse response = new MarketPlaceProductResponse();
         response.setProductId(product.getProductId());
         response.setSellerId(product.getSellerId());
@@ -98,8 +143,6 @@ public class ResponseMapper {
         response.setFlagged(product.getFlagged());
         response.setFlagReason(product.getFlagReason());
         response.setReportCount(product.getReportCount());
-        // collect image URLs from product_images table
-        java.util.List<com.uon.marketplace.entities.ProductImage> images = marketPlaceProductService.getProductImages(product.getProductId());
         java.util.List<String> imageUrls = new java.util.ArrayList<>();
         for (com.uon.marketplace.entities.ProductImage img : images) {
             imageUrls.add(img.getImageUrl());
@@ -108,12 +151,4 @@ public class ResponseMapper {
         return response;
     }
     
-    public java.util.List<MarketPlaceProductResponse> toMarketPlaceProductResponseList(java.util.List<MarketPlaceProduct> products) {
-        java.util.List<MarketPlaceProductResponse> list = new java.util.ArrayList<>();
-        for (MarketPlaceProduct p : products) {
-            list.add(toMarketPlaceProductResponse(p));
-        }
-        return list;
-    }
-    
 }
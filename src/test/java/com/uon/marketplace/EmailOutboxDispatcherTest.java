@@ -0,0 +1,171 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.entities.OutboundEmail;
+import com.uon.marketplace.repositories.EmailOutboxRepository;
+import com.uon.marketplace.services.EmailOutboxDispatcher;
+import com.uon.marketplace.services.EmailService;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class EmailOutboxDispatcherTest {
+
+    private static final long BACKOFF_MS = 30_000;
+    private static final long MAX_BACKOFF_MS = 3_600_000;
+    private static final int MAX_ATTEMPTS = 6;
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final EmailService emailService = new EmailService(mailSender);
+    private final EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(emailService, "fromAddress", "noreply@uon.test");
+        ReflectionTestUtils.setField(dispatcher, "outboxRepository", repository);
+        ReflectionTestUtils.setField(dispatcher, "emailService", emailService);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", BACKOFF_MS);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", MAX_BACKOFF_MS);
+    }
+
+    @Test
+    public void testClaimedBatchIsSentAndRedacted() {
+        List<OutboundEmail> batch = queue(email(1L, "alice@uon.test", 0), email(2L, "bob@uon.test", 0));
+
+        dispatcher.dispatch();
+
+        // The batch read back is the one claimed with this run's token
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        verify(repository).claim(eq(List.of(1L, 2L)), token.capture(), any());
+        verify(repository).findByClaimToken(token.getValue());
+        verify(mailSender).send(any(SimpleMailMessage[].class));
+        for (OutboundEmail email : batch) {
+            assertEquals(OutboundEmail.SENT, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertNotNull(email.getSentAt());
+            assertNull(email.getClaimToken());
+            assertEquals(OutboundEmail.REDACTED_BODY, email.getBody(), "Codes must not stay in the outbox");
+        }
+        verify(repository).saveAll(batch);
+    }
+
+    @Test
+    public void testNothingSentWhenClaimLost() {
+        when(repository.findDueIds(any(), any(Limit.class))).thenReturn(List.of(1L), List.of());
+        when(repository.claim(any(), anyString(), any())).thenReturn(0);
+
+        dispatcher.dispatch();
+
+        verify(repository, never()).findByClaimToken(anyString());
+        verifyNoInteractions(mailSender);
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testPartialBatchFailureRetriesOnlyFailedMessages() {
+        OutboundEmail delivered = email(1L, "alice@uon.test", 0);
+        OutboundEmail rejected = email(2L, "bob@uon.test", 0);
+        queue(delivered, rejected);
+        SimpleMailMessage rejectedMessage = emailService.toMessage("bob@uon.test", "Subject 2", "code 2");
+        doThrow(new MailSendException(Map.of(rejectedMessage, new MessagingException("550 mailbox unavailable"))))
+            .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        assertEquals(OutboundEmail.SENT, delivered.getStatus());
+        assertEquals(OutboundEmail.REDACTED_BODY, delivered.getBody());
+
+        assertEquals(OutboundEmail.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertTrue(rejected.getLastError().contains("550"));
+        assertEquals("code 2", rejected.getBody(), "Kept for the retry");
+        assertRetryAfter(rejected, before, Duration.ofMillis(BACKOFF_MS));
+    }
+
+    @Test
+    public void testBackoffDoublesPerAttemptUpToTheCap() {
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 20);
+        OutboundEmail third = email(1L, "alice@uon.test", 3);
+        OutboundEmail tenth = email(2L, "bob@uon.test", 10);
+        queue(third, tenth);
+        failEverything();
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        // Fourth attempt failed: 30s doubled three times
+        assertEquals(4, third.getAttempts());
+        assertRetryAfter(third, before, Duration.ofMillis(BACKOFF_MS * 8));
+        // Eleventh attempt: 30s * 1024 is over the hour cap
+        assertEquals(11, tenth.getAttempts());
+        assertRetryAfter(tenth, before, Duration.ofMillis(MAX_BACKOFF_MS));
+    }
+
+    @Test
+    public void testFailedAfterMaxAttempts() {
+        OutboundEmail last = email(1L, "alice@uon.test", MAX_ATTEMPTS - 1);
+        queue(last);
+        failEverything();
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboundEmail.FAILED, last.getStatus());
+        assertEquals(MAX_ATTEMPTS, last.getAttempts());
+        assertNotNull(last.getLastError());
+        assertEquals(OutboundEmail.REDACTED_BODY, last.getBody(), "Codes must not stay in the outbox");
+    }
+
+    private List<OutboundEmail> queue(OutboundEmail... emails) {
+        List<OutboundEmail> batch = new ArrayList<>(List.of(emails));
+        List<Long> ids = batch.stream().map(OutboundEmail::getEmailId).toList();
+        when(repository.findDueIds(any(), any(Limit.class))).thenReturn(ids, List.of());
+        when(repository.claim(any(), anyString(), any())).thenReturn(batch.size());
+        when(repository.findByClaimToken(anyString())).thenReturn(batch);
+        return batch;
+    }
+
+    private void failEverything() {
+        doThrow(new MailSendException("Connection refused"))
+            .when(mailSender).send(any(SimpleMailMessage[].class));
+    }
+
+    private static void assertRetryAfter(OutboundEmail email, LocalDateTime before, Duration delay) {
+        LocalDateTime after = LocalDateTime.now();
+        assertFalse(email.getNextAttemptAt().isBefore(before.plus(delay)));
+        assertFalse(email.getNextAttemptAt().isAfter(after.plus(delay)));
+    }
+
+    private static OutboundEmail email(Long id, String recipient, int attempts) {
+        OutboundEmail email = new OutboundEmail();
+        email.setEmailId(id);
+        email.setRecipient(recipient);
+        email.setSubject("Subject " + id);
+        email.setBody("code " + id);
+        email.setStatus(OutboundEmail.SENDING);
+        email.setAttempts(attempts);
+        email.setCreatedAt(LocalDateTime.now());
+        email.setNextAttemptAt(LocalDateTime.now());
+        return email;
+    }
+}
@@ -0,0 +1,80 @@
+package com.uon.marketplace;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.uon.marketplace.services.EmailService;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailService service(int port, String from) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        EmailService service = new EmailService(sender);
+        ReflectionTestUtils.setField(service, "fromAddress", from);
+        return service;
+    }
+
+    @Test
+    public void testSendBatchDeliversEveryMessage() throws Exception {
+        EmailService service = service(greenMail.getSmtp().getPort(), "noreply@uon.test");
+        List<SimpleMailMessage> batch = List.of(
+            service.toMessage("alice@uon.test", "First", "one"),
+            service.toMessage("bob@uon.test", "Second", "two"),
+            service.toMessage("carol@uon.test", "Third", "three"));
+
+        Map<SimpleMailMessage, Exception> failures = service.sendBatch(batch);
+
+        assertTrue(failures.isEmpty());
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("First", received[0].getSubject());
+        assertEquals("bob@uon.test", received[1].getAllRecipients()[0].toString());
+        assertEquals("noreply@uon.test", received[2].getFrom()[0].toString());
+    }
+
+    @Test
+    public void testUnreachableServerFailsWholeBatch() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        EmailService service = service(closedPort, "noreply@uon.test");
+        List<SimpleMailMessage> batch = List.of(
+            service.toMessage("alice@uon.test", "First", "one"),
+            service.toMessage("bob@uon.test", "Second", "two"));
+
+        Map<SimpleMailMessage, Exception> failures = service.sendBatch(batch);
+
+        // Every message is reported, so the dispatcher retries all of them
+        assertEquals(2, failures.size());
+        assertTrue(failures.keySet().containsAll(batch));
+    }
+
+    @Test
+    public void testWithoutSmtpConfiguredNothingIsSent() {
+        EmailService service = service(greenMail.getSmtp().getPort(), "");
+
+        Map<SimpleMailMessage, Exception> failures =
+            service.sendBatch(List.of(service.toMessage("alice@uon.test", "First", "one")));
+
+        // Logged to the console instead, and counted as delivered
+        assertTrue(failures.isEmpty());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+}
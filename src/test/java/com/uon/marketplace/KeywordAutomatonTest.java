@@ -0,0 +1,42 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.utils.KeywordAutomaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeywordAutomatonTest {
+
+    private final KeywordAutomaton automaton =
+            KeywordAutomaton.compile(List.of("cocaine", "weed", "wire transfer", "gun"));
+
+    @Test
+    public void testDirectMatch() {
+        // Plain substring match is case-insensitive and ignores word boundaries
+        assertTrue(automaton.matchesAny("Selling COCAINE cheap"));
+        assertTrue(automaton.matchesAny("begun"));
+    }
+
+    @Test
+    public void testLeetSpeakVariations() {
+        // Leet-speak variants are caught when they stand on their own
+        assertTrue(automaton.matchesAny("got some w33d"));
+        assertTrue(automaton.matchesAny("c0c@1ne available"));
+        assertFalse(automaton.matchesAny("xw33dx"), "Leet variant inside a word should not match");
+    }
+
+    @Test
+    public void testFindAllPreservesKeywordOrder() {
+        // Multiple keywords found in one pass, reported in compile order
+        List<String> found = automaton.findAll("Gun and weed, wire transfer only");
+        assertEquals(List.of("weed", "wire transfer", "gun"), found);
+    }
+
+    @Test
+    public void testCleanText() {
+        assertFalse(automaton.matchesAny("iPhone 13 Pro Excellent condition"));
+        assertTrue(KeywordAutomaton.empty().findAll("cocaine").isEmpty());
+    }
+}
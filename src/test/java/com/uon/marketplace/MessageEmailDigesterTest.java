@@ -0,0 +1,89 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.entities.Message;
+import com.uon.marketplace.repositories.MessageRepository;
+import com.uon.marketplace.services.EmailOutboxService;
+import com.uon.marketplace.services.MessageEmailDigester;
+import com.uon.marketplace.services.ProductDetailCache;
+import com.uon.marketplace.services.UserSummaryCache;
+import com.uon.marketplace.services.UserSummaryCache.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MessageEmailDigesterTest {
+
+    private static final Long RECEIVER = 1L;
+    private static final Long SENDER = 2L;
+    private static final Long PRODUCT = 10L;
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final UserSummaryCache userSummaryCache = mock(UserSummaryCache.class);
+    private final ProductDetailCache productDetailCache = mock(ProductDetailCache.class);
+    private final EmailOutboxService emailOutboxService = mock(EmailOutboxService.class);
+    private final MessageEmailDigester digester = new MessageEmailDigester();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(digester, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(digester, "userSummaryCache", userSummaryCache);
+        ReflectionTestUtils.setField(digester, "productDetailCache", productDetailCache);
+        ReflectionTestUtils.setField(digester, "emailOutboxService", emailOutboxService);
+        ReflectionTestUtils.setField(digester, "maxMessages", 10);
+
+        when(userSummaryCache.getAll(any())).thenReturn(Map.of(
+            RECEIVER, new UserSummary(RECEIVER, "buyer@uon.test", "Bea", "Buyer", "ACTIVE", null, true),
+            SENDER, new UserSummary(SENDER, "seller@uon.test", "Sam", "Seller", "ACTIVE", null, true)));
+        MarketPlaceProduct product = new MarketPlaceProduct();
+        product.setProductId(PRODUCT);
+        product.setProductName("Desk lamp");
+        when(productDetailCache.getProduct(PRODUCT)).thenReturn(Optional.of(product));
+    }
+
+    @Test
+    public void testOutOfOrderRecordsWidenTheRange() {
+        // Message 7 commits (and is recorded) before message 5
+        digester.record(message(7L, "second"));
+        digester.record(message(5L, "first"));
+        when(messageRepository.findUnreadInRange(RECEIVER, SENDER, PRODUCT, 5L, 7L))
+            .thenReturn(List.of(message(5L, "first"), message(7L, "second")));
+
+        digester.flushAll();
+
+        verify(messageRepository).findUnreadInRange(RECEIVER, SENDER, PRODUCT, 5L, 7L);
+        verify(emailOutboxService).enqueue(eq("buyer@uon.test"), contains("2 new messages"), contains("first"));
+    }
+
+    @Test
+    public void testNoEmailWhenAlreadyRead() {
+        digester.record(message(5L, "hello"));
+        when(messageRepository.findUnreadInRange(RECEIVER, SENDER, PRODUCT, 5L, 5L)).thenReturn(List.of());
+
+        digester.flushAll();
+
+        verify(emailOutboxService, never()).enqueue(anyString(), anyString(), anyString());
+        assertEquals(1L, digester.getStats().get("skippedAlreadyRead"));
+    }
+
+    private static Message message(Long id, String content) {
+        Message message = new Message();
+        message.setMessageId(id);
+        message.setSenderId(SENDER);
+        message.setReceiverId(RECEIVER);
+        message.setProductId(PRODUCT);
+        message.setContent(content);
+        return message;
+    }
+}
@@ -0,0 +1,128 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.entities.MarketPlaceProduct;
+import com.uon.marketplace.services.ProductSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    public void testTokenization() {
+        index.index(product(1L, "The Red Phones", "USB-C charger included"));
+
+        // Case-insensitive, plural stripped, punctuation splits words
+        assertEquals(List.of(1L), ids("RED phone"));
+        assertEquals(List.of(1L), ids("usb c charger"));
+        assertEquals(List.of(1L), ids("phones"));
+        // Stop words are dropped, so a query of only stop words is rejected
+        assertEquals(List.of(1L), ids("the red and"));
+        assertThrows(RuntimeException.class, () -> index.search("the and", null, null, null, null, null, null));
+    }
+
+    @Test
+    public void testPrefixExpansion() {
+        index.index(product(1L, "Laptop stand", "Aluminium"));
+
+        // The last word matches as a prefix, earlier words only as whole words
+        assertEquals(List.of(1L), ids("stand lapt"));
+        assertEquals(List.of(), ids("lapt stand"));
+        // A trailing '*' makes any word a prefix
+        assertEquals(List.of(1L), ids("lapt* stand"));
+        // Single-letter prefixes are not expanded
+        assertEquals(List.of(), ids("l"));
+    }
+
+    @Test
+    public void testRankingOrder() {
+        index.index(product(1L, "Office chair", "Comes with a desk lamp"));
+        index.index(product(2L, "Desk lamp", "Bright"));
+        // Name matches outweigh description matches
+        assertEquals(List.of(2L, 1L), ids("lamp"));
+
+        index.index(product(3L, "Blue pencil", null));
+        index.index(product(4L, "Blue pen", null));
+        // A whole-word match ranks above a prefix match
+        assertEquals(List.of(4L, 3L), ids("blue pen"));
+
+        MarketPlaceProduct older = product(5L, "Vintage clock", null);
+        older.setPostedDate(LocalDateTime.now().minusDays(3));
+        MarketPlaceProduct newer = product(6L, "Vintage clock", null);
+        newer.setPostedDate(LocalDateTime.now());
+        index.index(older);
+        index.index(newer);
+        // Equal scores: newest listing first
+        assertEquals(List.of(6L, 5L), ids("vintage clock"));
+    }
+
+    @Test
+    public void testUnavailableListingsAreRemoved() {
+        MarketPlaceProduct product = product(1L, "Road bike", null);
+        index.index(product);
+        assertEquals(List.of(1L), ids("bike"));
+
+        product.setStatus("Sold");
+        index.index(product);
+        assertEquals(List.of(), ids("bike"));
+    }
+
+    @Test
+    public void testChangesDuringReloadWin() {
+        List<List<MarketPlaceProduct>> chunks = new ArrayList<>();
+        chunks.add(List.of(product(1L, "Camera lens", null), product(2L, "Camera bag", null),
+            product(3L, "Camera tripod", null)));
+        ReflectionTestUtils.setField(index, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                if (chunks.isEmpty()) {
+                    return List.of();
+                }
+                // Hooks that run while the chunk is being read: one listing sold, one renamed
+                index.remove(2L);
+                index.index(product(3L, "Camera gimbal", null));
+                return (List<T>) chunks.remove(0);
+            }
+        });
+
+        index.reload();
+
+        assertEquals(List.of(1L), ids("lens"));
+        assertEquals(List.of(), ids("bag"), "Removed during the load, not re-added from the stale row");
+        assertEquals(List.of(3L), ids("gimbal"));
+        assertEquals(List.of(), ids("tripod"), "Renamed during the load, the stale row is skipped");
+        assertEquals(true, index.getStats().get("ready"));
+    }
+
+    private List<Long> ids(String query) {
+        List<Long> ids = new ArrayList<>();
+        for (ProductSearchIndex.Hit hit : index.search(query, null, null, null, null, 0, 50).hits()) {
+            ids.add(hit.productId());
+        }
+        return ids;
+    }
+
+    private static MarketPlaceProduct product(Long id, String name, String description) {
+        MarketPlaceProduct product = new MarketPlaceProduct();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setProductDescription(description);
+        product.setCategory("Other");
+        product.setCondition("Used");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setPostedDate(LocalDateTime.of(2026, 1, 1, 12, 0));
+        product.setStatus("Available");
+        return product;
+    }
+}
@@ -0,0 +1,87 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.services.ProfanityFilter;
+import com.uon.marketplace.utils.ProfanityScanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfanityScannerTest {
+
+    private final ProfanityScanner scanner =
+            new ProfanityScanner(List.of("hell", "ass", "asshole", "shit", "sh!t", "damn"));
+
+    @Test
+    public void testWordBoundaries() {
+        // Listed words only match as whole words, never inside a longer word
+        assertFalse(scanner.scan("hello there", false).found());
+        assertFalse(scanner.scan("a classic bass guitar", false).found());
+        assertEquals(List.of("hell"), scanner.scan("what the HELL.", false).words());
+        assertEquals(List.of("damn"), scanner.scan("(damn)", false).words());
+    }
+
+    @Test
+    public void testOverlappingTermsReportLongestWholeWord() {
+        // "ass" is a prefix of "asshole": the whole word is reported once
+        List<ProfanityScanner.Hit> hits = scanner.scan("you asshole", false).getHits();
+        assertEquals(1, hits.size());
+        assertEquals(new ProfanityScanner.Hit(4, 11, "asshole"), hits.get(0));
+
+        // "sh!t" is both a listed word and a variant; one hit, not two
+        hits = scanner.scan("sh!t happens", false).getHits();
+        assertEquals(1, hits.size());
+        assertEquals(new ProfanityScanner.Hit(0, 4, "sh!t"), hits.get(0));
+    }
+
+    @Test
+    public void testObfuscatedForms() {
+        assertTrue(scanner.scan("s.h.i.t", false).found(), "Punctuation inside a token");
+        assertTrue(scanner.scan("fuuuck off", false).found(), "Repeated letters");
+        assertTrue(scanner.scan("b1tch", false).found(), "Digit substitution");
+    }
+
+    @Test
+    public void testHitsInOrderWithOffsets() {
+        String text = "damn, the hell";
+        ProfanityScanner.Result result = scanner.scan(text, false);
+        assertEquals(List.of("damn", "hell"), result.words());
+        assertEquals("****, the ****", result.mask(text));
+
+        // stopAtFirst returns as soon as one hit is known
+        assertEquals(List.of("damn"), scanner.scan(text, true).words());
+    }
+
+    @Test
+    public void testScannerIsImmutable() {
+        List<String> words = new ArrayList<>(List.of("frak"));
+        ProfanityScanner built = new ProfanityScanner(words);
+        words.add("gorram");
+
+        assertFalse(built.scan("gorram it", false).found(), "Later edits to the source list are not seen");
+        assertThrows(UnsupportedOperationException.class, () -> built.getWords().add("x"));
+    }
+
+    @Test
+    public void testFilterSwapsScannerOnChange() {
+        ProfanityFilter filter = new ProfanityFilter();
+        long before = filter.getVersion();
+        ProfanityScanner.Result earlier = filter.scan("frak this");
+
+        filter.addBadWord("Frak");
+        assertTrue(filter.containsProfanity("frak this"));
+        assertFalse(earlier.found(), "Results from the old scanner are unaffected");
+        assertNotEquals(before, filter.getVersion());
+
+        // Adding a word already listed does not rebuild or bump the version
+        long afterAdd = filter.getVersion();
+        filter.addBadWord("frak");
+        assertEquals(afterAdd, filter.getVersion());
+
+        filter.removeBadWord("frak");
+        assertFalse(filter.containsProfanity("frak this"));
+        assertNotEquals(afterAdd, filter.getVersion());
+    }
+}
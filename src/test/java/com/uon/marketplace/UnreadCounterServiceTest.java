@@ -0,0 +1,158 @@
+package com.uon.marketplace;
+
+import com.uon.marketplace.repositories.MessageRepository;
+import com.uon.marketplace.repositories.NotificationRepository;
+import com.uon.marketplace.services.UnreadCounterService;
+import com.uon.marketplace.services.UnreadCounterService.Kind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UnreadCounterServiceTest {
+
+    private static final Long USER = 7L;
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UnreadCounterService counters = new UnreadCounterService(1000);
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(counters, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(counters, "notificationRepository", notificationRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testCommittedChangeIsAppliedToTheCachedCount() {
+        when(messageRepository.countUnreadMessages(USER)).thenReturn(3L);
+        assertEquals(3, counters.get(Kind.MESSAGES, USER));
+
+        commit(change(Kind.MESSAGES, -2));
+
+        assertEquals(1, counters.get(Kind.MESSAGES, USER));
+        verify(messageRepository, times(1)).countUnreadMessages(USER);
+    }
+
+    @Test
+    public void testRollbackLeavesTheCachedCount() {
+        when(notificationRepository.countByUserIdAndReadFalse(USER)).thenReturn(4L);
+        assertEquals(4, counters.get(Kind.NOTIFICATIONS, USER));
+
+        // Rolled back before commit: nothing changed in the database either
+        for (TransactionSynchronization sync : change(Kind.NOTIFICATIONS, -1)) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(4, counters.get(Kind.NOTIFICATIONS, USER));
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalse(USER);
+    }
+
+    @Test
+    public void testFailedCommitDropsTheCachedCount() {
+        when(notificationRepository.countByUserIdAndReadFalse(USER)).thenReturn(4L);
+        assertEquals(4, counters.get(Kind.NOTIFICATIONS, USER));
+
+        // The commit itself failed, so whether the change landed is unknown
+        List<TransactionSynchronization> syncs = change(Kind.NOTIFICATIONS, -1);
+        for (TransactionSynchronization sync : syncs) {
+            sync.beforeCommit(false);
+        }
+        for (TransactionSynchronization sync : syncs) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // Reloaded, not decremented
+        assertEquals(4, counters.get(Kind.NOTIFICATIONS, USER));
+        verify(notificationRepository, times(2)).countByUserIdAndReadFalse(USER);
+    }
+
+    @Test
+    public void testLoadOverlappingACommitIsNotCached() {
+        // The load reads the database while another transaction commits and applies -1
+        when(messageRepository.countUnreadMessages(USER)).thenAnswer(invocation -> {
+            commit(change(Kind.MESSAGES, -1));
+            return 2L;
+        }).thenReturn(2L);
+
+        assertEquals(2, counters.get(Kind.MESSAGES, USER));
+        // Caching 2 could have counted the change twice on a later one; it is reloaded instead
+        assertEquals(2, counters.get(Kind.MESSAGES, USER));
+        verify(messageRepository, times(2)).countUnreadMessages(USER);
+    }
+
+    @Test
+    public void testLoadWhileAChangeIsInFlightIsNotCached() {
+        List<TransactionSynchronization> pending = change(Kind.MESSAGES, -1);
+        for (TransactionSynchronization sync : pending) {
+            sync.beforeCommit(false);
+        }
+        // Committed in the database, not yet applied here
+        when(messageRepository.countUnreadMessages(USER)).thenReturn(2L);
+        assertEquals(2, counters.get(Kind.MESSAGES, USER));
+
+        for (TransactionSynchronization sync : pending) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Not cached, so the -1 did not land on a count that already had it
+        assertEquals(2, counters.get(Kind.MESSAGES, USER));
+        verify(messageRepository, times(2)).countUnreadMessages(USER);
+        assertEquals(2, counters.get(Kind.MESSAGES, USER));
+        verify(messageRepository, times(2)).countUnreadMessages(USER);
+    }
+
+    @Test
+    public void testChangeForAnUnloadedUserIsSkipped() {
+        commit(change(Kind.MESSAGES, 5));
+        when(messageRepository.countUnreadMessages(USER)).thenReturn(5L);
+
+        assertEquals(5, counters.get(Kind.MESSAGES, USER));
+        assertEquals(5, counters.get(Kind.MESSAGES, USER));
+        verify(messageRepository, times(1)).countUnreadMessages(USER);
+    }
+
+    /**
+     * Report a change inside a simulated transaction and return the synchronizations it registered
+     */
+    private List<TransactionSynchronization> change(Kind kind, long delta) {
+        boolean outer = TransactionSynchronizationManager.isSynchronizationActive();
+        List<TransactionSynchronization> before = outer ? TransactionSynchronizationManager.getSynchronizations() : List.of();
+        if (!outer) {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+        try {
+            counters.change(kind, USER, delta);
+            return TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(sync -> !before.contains(sync))
+                .toList();
+        } finally {
+            if (!outer) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    private static void commit(List<TransactionSynchronization> syncs) {
+        for (TransactionSynchronization sync : syncs) {
+            sync.beforeCommit(false);
+        }
+        for (TransactionSynchronization sync : syncs) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+}